@@ -0,0 +1,196 @@
+package ru.practicum.shareit.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Gateway throughput with a slow server: blocking RestTemplate against reactive WebClient mode.
+//The gateway runs as its own JVM from its packaged jar (mvn -B -pl gateway package -DskipTests first,
+//or point -Dgateway.jar at it) in front of a stub server answering every call after serverDelayMs.
+//Its memory is reported by GatewayRssProfiler, add -prof ru.practicum.shareit.benchmark.GatewayRssProfiler.
+//Load generator, stub and gateway share the machine, so compare modes on one host only
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 4, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(GatewayLoadBenchmark.CALLERS)
+@Fork(1)
+public class GatewayLoadBenchmark {
+    static final int CALLERS = 300;
+    private static final String USER = "{\"id\":1,\"name\":\"user\",\"email\":\"user@email.ru\"}";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"false", "true"})
+    private boolean reactive;
+
+    @Param({"200"})
+    private int serverDelayMs;
+
+    @Param({"50"})
+    private int tomcatThreads;
+
+    //Same for both modes so that RSS is comparable
+    @Param({"256m"})
+    private String gatewayHeap;
+
+    //Every call asks for another user: the gateway coalesces identical GETs that are in flight together
+    private final AtomicLong nextUserId = new AtomicLong();
+    private Process gateway;
+    private HttpServer stub;
+    private ExecutorService stubExecutor;
+    private HttpClient httpClient;
+    private String usersUrl;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        stubExecutor = Executors.newCachedThreadPool();
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        stub.setExecutor(stubExecutor);
+        stub.createContext("/actuator/health", exchange -> respond(exchange, "{\"status\":\"UP\"}"));
+        stub.createContext("/users", exchange -> {
+            try {
+                Thread.sleep(serverDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, USER);
+        });
+        stub.start();
+
+        int port = freePort();
+        File jar = Paths.get(System.getProperty("gateway.jar",
+                "../gateway/target/shareit-gateway-0.0.1-SNAPSHOT.jar")).toFile();
+        if (!jar.isFile()) {
+            throw new IllegalStateException("Gateway jar not found: " + jar.getAbsolutePath());
+        }
+        gateway = new ProcessBuilder(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + gatewayHeap,
+                "-jar", jar.getAbsolutePath(),
+                "--server.port=" + port,
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--shareit-server.url=http://localhost:" + stub.getAddress().getPort(),
+                "--shareit-server.reactive=" + reactive,
+                //No limit of the gateway is under test: every caller has to reach the server
+                "--rate-limit.enabled=false",
+                "--resilience4j.bulkhead.configs.default.max-concurrent-calls=" + CALLERS,
+                "--shareit-server.pool.max-total=" + CALLERS,
+                "--shareit-server.pool.max-per-route=" + CALLERS,
+                "--logging.level.root=warn"))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        awaitStartup(URI.create("http://localhost:" + port + "/actuator/health"));
+        usersUrl = "http://localhost:" + port + "/users/";
+    }
+
+    //Right after the load of the iteration stops; the profiler reports it only after the trial teardown
+    @TearDown(Level.Iteration)
+    public void sampleMemory() throws IOException {
+        GatewayRssProfiler.sample(gateway.pid());
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        gateway.destroy();
+        gateway.waitFor(30, TimeUnit.SECONDS);
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    //Throughput counts every answer, failed tells how many of them were errors of the gateway
+    @Benchmark
+    public int getUser(Responses responses) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(usersUrl + nextUserId.incrementAndGet()))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            responses.failed++;
+        }
+        return status;
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Responses {
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            failed = 0;
+        }
+    }
+
+    private void awaitStartup(URI health) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(5)).build();
+        while (System.nanoTime() < deadline) {
+            if (!gateway.isAlive()) {
+                throw new IllegalStateException("Gateway exited with code " + gateway.exitValue());
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                //Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Gateway did not start in " + STARTUP_TIMEOUT);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+//Resident memory of the gateway process started by GatewayLoadBenchmark, read from /proc/<pid>/status (Linux)
+//at the end of every measurement iteration. Reports VmRSS, the memory resident at that moment, and VmHWM,
+//the peak since the gateway started; the largest value of the iterations is kept. Both count heap, metaspace,
+//code cache, thread stacks and direct buffers, not just the heap limited by -Xmx
+public class GatewayRssProfiler implements InternalProfiler {
+    private static volatile double rssMegabytes;
+    private static volatile double peakRssMegabytes;
+
+    //Called by the benchmark while its gateway is still running
+    static void sample(long pid) throws IOException {
+        for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                rssMegabytes = megabytes(line);
+            } else if (line.startsWith("VmHWM:")) {
+                peakRssMegabytes = megabytes(line);
+            }
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Resident memory of the gateway process under load";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        rssMegabytes = 0;
+        peakRssMegabytes = 0;
+    }
+
+    @Override
+    public List<Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                       IterationResult result) {
+        if (iterationParams.getType() != IterationType.MEASUREMENT || rssMegabytes == 0) {
+            return List.of();
+        }
+        return List.of(
+                new ScalarResult("·gateway.rss", rssMegabytes, "MB", AggregationPolicy.MAX),
+                new ScalarResult("·gateway.rss.peak", peakRssMegabytes, "MB", AggregationPolicy.MAX));
+    }
+
+    //"VmRSS:    236544 kB"
+    private static double megabytes(String line) {
+        String kilobytes = line.substring(line.indexOf(':') + 1).replace("kB", "").trim();
+        return Long.parseLong(kilobytes) / 1024.0;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+//Service read paths against a seeded in-memory H2 database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final long OWNER_ID = 1L;
+    private static final int ITEMS_PER_OWNER = 100;
+    private static final int BOOKERS = 100;
+    private static final String SEARCH_TEXT = "benchmark";
+
+    //Total number of items; owners, bookings and comments scale with it
+    @Param({"10000"})
+    private int items;
+
+    @Param({"5"})
+    private int bookingsPerItem;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private ItemService itemService;
+    private Pageable page;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .profiles("ci")
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark", "logging.level.root=warn")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        itemService = context.getBean(ItemService.class);
+        page = PageRequest.of(0, pageSize);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> bookingsByOwner() {
+        return bookingService.getByOwner(OWNER_ID, "ALL", page);
+    }
+
+    @Benchmark
+    public List<ItemResponseDto> itemsByOwner() {
+        return itemService.getAllItemsByOwner(OWNER_ID, page);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchItems() {
+        return itemService.searchItemsByText(SEARCH_TEXT, page);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        int owners = Math.max(1, items / ITEMS_PER_OWNER);
+
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= owners + BOOKERS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@email.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (user_id, user_name, email) values (?, ?, ?)", users);
+
+        List<Object[]> itemRows = new ArrayList<>();
+        for (long id = 1; id <= items; id++) {
+            String description = id % 10 == 0 ? "Вещь для " + SEARCH_TEXT + " " + id : "Вещь " + id;
+            itemRows.add(new Object[]{id, "item" + id, description, true, (id - 1) % owners + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into items (item_id, item_name, description, is_available, owner_id) " +
+                "values (?, ?, ?, ?, ?)", itemRows);
+
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        BookingStatus[] statuses = BookingStatus.values();
+        for (long itemId = 1; itemId <= items; itemId++) {
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = now.plusHours(random.nextInt(24 * 60) - 24 * 30);
+                bookings.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)), itemId,
+                        owners + 1 + random.nextInt(BOOKERS), statuses[random.nextInt(statuses.length)].name()});
+            }
+            comments.add(new Object[]{"comment" + itemId, itemId, owners + 1 + random.nextInt(BOOKERS),
+                    Timestamp.valueOf(now)});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("insert into comments (text, item_id, author_id, created) values (?, ?, ?, ?)",
+                comments);
+    }
+}
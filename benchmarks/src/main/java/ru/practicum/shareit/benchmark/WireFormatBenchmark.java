@@ -0,0 +1,149 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+//JSON against Smile on the gateway-server hop: server writes, gateway-to-server request parsing on the server
+//and Smile to JSON transcoding on the gateway
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    //Elements of each list
+    @Param({"20", "1000"})
+    private int size;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final SmileFactory smileFactory = new SmileFactory();
+    private ObjectMapper jsonMapper;
+    private ObjectMapper smileMapper;
+    private JavaType bookingListType;
+    private List<BookingResponseDto> bookings;
+    private List<ItemResponseDto> items;
+    private byte[] bookingsJson;
+    private byte[] bookingsSmile;
+    private byte[] itemsSmile;
+
+    @Setup
+    public void setup() throws IOException {
+        //Settings of the ObjectMapper Spring Boot builds for both services
+        jsonMapper = new Jackson2ObjectMapperBuilder().build();
+        smileMapper = new Jackson2ObjectMapperBuilder().factory(new SmileFactory()).build();
+        bookingListType = jsonMapper.getTypeFactory().constructCollectionType(List.class, BookingResponseDto.class);
+
+        LocalDateTime now = LocalDateTime.of(2030, 1, 1, 10, 0);
+        User owner = new User(1L, "owner", "owner@email.ru");
+        User booker = new User(2L, "booker", "booker@email.ru");
+        ItemRequest request = new ItemRequest(1L, "Нужна дрель для ремонта", booker, now);
+        bookings = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> new Booking(id, now.plusDays(id), now.plusDays(id + 1),
+                        new Item(id, "Дрель " + id, "Ударная дрель с набором сверл " + id, true, owner, request),
+                        booker, BookingStatus.APPROVED))
+                .map(BookingMapper::toBookingResponseDto)
+                .collect(Collectors.toList());
+        List<CommentDto> comments = List.of(
+                new CommentDto(1L, "Отличная вещь, спасибо!", booker.getName(), now),
+                new CommentDto(2L, "Сверла тупые", booker.getName(), now.plusDays(1)));
+        items = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> ItemMapper.toItemResponseDto(
+                        new Item(id, "Дрель " + id, "Ударная дрель с набором сверл " + id, true, owner, null),
+                        new BookingItemDto(id, booker.getId()), new BookingItemDto(id + 1, booker.getId()), comments))
+                .collect(Collectors.toList());
+
+        bookingsJson = jsonMapper.writeValueAsBytes(bookings);
+        bookingsSmile = smileMapper.writeValueAsBytes(bookings);
+        itemsSmile = smileMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] writeBookingsJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] writeBookingsSmile() throws IOException {
+        return smileMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] writeItemsJson() throws IOException {
+        return jsonMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] writeItemsSmile() throws IOException {
+        return smileMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> readBookingsJson() throws IOException {
+        return jsonMapper.readValue(bookingsJson, bookingListType);
+    }
+
+    @Benchmark
+    public List<BookingResponseDto> readBookingsSmile() throws IOException {
+        return smileMapper.readValue(bookingsSmile, bookingListType);
+    }
+
+    //What the gateway pays to answer its clients in JSON; JSON from the server is passed through for free
+    @Benchmark
+    public byte[] transcodeBookingsSmileToJson() throws IOException {
+        return transcode(bookingsSmile);
+    }
+
+    @Benchmark
+    public byte[] transcodeItemsSmileToJson() throws IOException {
+        return transcode(itemsSmile);
+    }
+
+    //Same token copy as the gateway's SmileTranscoder
+    private byte[] transcode(byte[] smile) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(smile.length * 2);
+        try (JsonParser parser = smileFactory.createParser(smile);
+             JsonGenerator generator = jsonFactory.createGenerator(json)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+        return json.toByteArray();
+    }
+}
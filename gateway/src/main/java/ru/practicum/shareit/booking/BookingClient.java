@@ -1,15 +1,15 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerClientFactory;
 
 import java.util.Map;
 
@@ -18,16 +18,20 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerClientFactory clients) {
+        super(clients, API_PREFIX);
     }
 
-    public ResponseEntity<Object> getByUser(long userId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getByUser(long userId, BookingState state, Integer from, Integer size,
+                                            @Nullable String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "cursor", cursor
+            );
+            return get("?state={state}&size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -37,19 +41,32 @@ public class BookingClient extends BaseClient {
     }
 
 
-    public ResponseEntity<Object> add(long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> add(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getById(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getById(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> approveBooking(long userId, long bookingId, boolean isApproved) {
+    public Mono<ResponseEntity<Object>> approveBooking(long userId, long bookingId, boolean isApproved) {
         return patch("/" + bookingId + "?approved=" + isApproved, userId);
     }
 
-    public ResponseEntity<Object> getByOwner(long ownerId, BookingState state, int from, int size) {
+    public Mono<ResponseEntity<Object>> approveBookings(long userId, BookingApprovalDto approval, boolean isApproved) {
+        return patch("?approved={approved}", userId, Map.of("approved", isApproved), approval);
+    }
+
+    public Mono<ResponseEntity<Object>> getByOwner(long ownerId, BookingState state, int from, int size,
+                                             @Nullable String cursor) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of(
+                    "state", state.name(),
+                    "size", size,
+                    "cursor", cursor
+            );
+            return get("/owner?state={state}&size={size}&cursor={cursor}", ownerId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
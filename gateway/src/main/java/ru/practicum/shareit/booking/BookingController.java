@@ -13,7 +13,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.exception.BookingStateException;
 import ru.practicum.shareit.exception.ValidationException;
@@ -34,8 +36,8 @@ public class BookingController {
 	private final BookingClient bookingClient;
 
 	@PostMapping()
-	public ResponseEntity<Object> add(@RequestHeader(HEADER_USER_ID) long userId,
-									  @RequestBody @Valid BookItemRequestDto bookingRequestDto) {
+	public Mono<ResponseEntity<Object>> add(@RequestHeader(HEADER_USER_ID) long userId,
+									        @RequestBody @Valid BookItemRequestDto bookingRequestDto) {
 		log.info("Добавление нового запроса на бронирование {}", bookingRequestDto);
 		if (bookingRequestDto.getEnd().isBefore(bookingRequestDto.getStart())) {
 			throw new ValidationException("Дата окончания не может быть раньше даты старта!");
@@ -44,44 +46,64 @@ public class BookingController {
 	}
 
 	@PatchMapping("{bookingId}")
-	public ResponseEntity<Object>  approveBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-												  @PathVariable long bookingId,
-												  @RequestParam("approved") boolean isApproved) {
+	public Mono<ResponseEntity<Object>>  approveBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+												        @PathVariable long bookingId,
+												        @RequestParam("approved") boolean isApproved) {
 		return bookingClient.approveBooking(userId, bookingId, isApproved);
 	}
 
+	//Many bookings in one call, with a result per booking
+	@PatchMapping
+	public Mono<ResponseEntity<Object>> approveBookings(@RequestHeader(HEADER_USER_ID) long userId,
+												        @RequestParam("approved") boolean isApproved,
+												        @RequestBody @Valid BookingApprovalDto approval) {
+		log.info("Смена статуса бронирований {}, approved={}, userId={}", approval, isApproved, userId);
+		if (approval.getBookingIds() != null && (approval.getItemId() != null || approval.getStartFrom() != null
+				|| approval.getStartTo() != null)) {
+			throw new ValidationException("Список бронирований нельзя указывать вместе с фильтром!");
+		}
+		if (approval.getStartFrom() != null && approval.getStartTo() != null
+				&& approval.getStartTo().isBefore(approval.getStartFrom())) {
+			throw new ValidationException("Конец периода не может быть раньше его начала!");
+		}
+		return bookingClient.approveBookings(userId, approval, isApproved);
+	}
+
 	@GetMapping("{bookingId}")
-	public ResponseEntity<Object>  getById(@RequestHeader(HEADER_USER_ID) long userId,
-									   @PathVariable long bookingId) {
+	public Mono<ResponseEntity<Object>>  getById(@RequestHeader(HEADER_USER_ID) long userId,
+									         @PathVariable long bookingId) {
 		log.info("Получение запроса {}, userId={}", bookingId, userId);
 		return bookingClient.getById(userId, bookingId);
 	}
 
 	@GetMapping
-	public ResponseEntity<Object> getByUser(@RequestHeader(HEADER_USER_ID) long userId,
-											  @RequestParam(value = "state", defaultValue = "ALL") String stateIn,
-											  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-											  Integer from,
-											  @Positive @RequestParam(name = "size", defaultValue = "10")
-											  Integer size) {
+	public Mono<ResponseEntity<Object>> getByUser(@RequestHeader(HEADER_USER_ID) long userId,
+											        @RequestParam(value = "state", defaultValue = "ALL") String stateIn,
+											        @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+											        Integer from,
+											        @Positive @RequestParam(name = "size", defaultValue = "10")
+											        Integer size,
+											        @RequestParam(name = "cursor", required = false) String cursor) {
 		BookingState state = BookingState.from(stateIn)
 				.orElseThrow(() -> new BookingStateException("Unknown state: " + stateIn));
-		log.info("Получение запросов {} пользователя userId={}, from={}, size={}", stateIn, userId, from, size);
-		return bookingClient.getByUser(userId, state, from, size);
+		log.info("Получение запросов {} пользователя userId={}, from={}, size={}, cursor={}", stateIn, userId, from,
+				size, cursor);
+		return bookingClient.getByUser(userId, state, from, size, cursor);
 	}
 
 	@GetMapping("/owner")
-	public ResponseEntity<Object> getByOwner(@RequestHeader(HEADER_USER_ID) long userId,
-											   @RequestParam(value = "state", defaultValue = "ALL") String stateIn,
-											   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-											   Integer from,
-											   @Positive @RequestParam(name = "size", defaultValue = "10")
-											   Integer size)  {
+	public Mono<ResponseEntity<Object>> getByOwner(@RequestHeader(HEADER_USER_ID) long userId,
+											         @RequestParam(value = "state", defaultValue = "ALL") String stateIn,
+											         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+											         Integer from,
+											         @Positive @RequestParam(name = "size", defaultValue = "10")
+											         Integer size,
+											         @RequestParam(name = "cursor", required = false) String cursor)  {
 		BookingState state = BookingState.from(stateIn)
 				.orElseThrow(() -> new BookingStateException("Unknown state: " + stateIn));
-		log.info("Получение запросов по id владельца вещи, userId={}, from={}, size={}, state={}", userId, from, size,
-				stateIn);
+		log.info("Получение запросов по id владельца вещи, userId={}, from={}, size={}, state={}, cursor={}", userId,
+				from, size, stateIn, cursor);
 
-		return bookingClient.getByOwner(userId, state, from, size);
+		return bookingClient.getByOwner(userId, state, from, size, cursor);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+//Listed bookings, or without the list the waiting bookings of the owner's items matching the filter;
+//a list given together with the filter is rejected
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingApprovalDto {
+	@Size(max = 1000)
+	private List<@NotNull Long> bookingIds;
+	@Positive
+	private Long itemId;
+	private LocalDateTime startFrom;
+	private LocalDateTime startTo;
+}
@@ -1,121 +1,282 @@
 package ru.practicum.shareit.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 public class BaseClient {
+    //Connection-level headers plus Content-Length, which the gateway sets for its own response
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-length");
+    //Milliseconds left of the gateway's deadline when the request is sent
+    private static final String HEADER_REQUEST_TIMEOUT = "X-Request-Timeout-Ms";
+
     protected final RestTemplate rest;
+    protected final WebClient web;
+    private final ServerClientFactory clients;
+    private final String apiPrefix;
+    private final boolean reactive;
+    private final Scheduler blockingScheduler;
+    private final WireFormat wireFormat;
+    private final ObjectMapper smileMapper;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final RequestPolicy requestPolicy;
+    //GET calls to the server in flight, identical concurrent GETs wait for the same one
+    private final ConcurrentMap<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    public BaseClient(ServerClientFactory clients, String apiPrefix) {
+        this.rest = clients.restTemplate(apiPrefix);
+        this.web = clients.webClient(apiPrefix);
+        this.clients = clients;
+        this.apiPrefix = apiPrefix;
+        this.reactive = clients.isReactive();
+        this.blockingScheduler = clients.blockingScheduler();
+        this.wireFormat = clients.getWireFormat();
+        this.smileMapper = clients.smileMapper();
+        this.circuitBreaker = clients.circuitBreaker(apiPrefix);
+        this.bulkhead = clients.bulkhead(apiPrefix);
+        this.requestPolicy = clients.requestPolicy(apiPrefix);
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        Object payload = encode(body);
+        //Only GETs are retried and hedged, the deadline covers every request.
+        //A blocking call stays on the servlet thread unless it is hedged: two calls at once need their own threads.
+        //There the deadline answers only when the call returns, at the latest after the read timeout of the pool
+        boolean hedged = method == HttpMethod.GET && requestPolicy.isHedged();
+        Mono<ResponseEntity<Object>> response = Mono.defer(() -> {
+            long deadline = System.nanoTime() + requestPolicy.getDeadline().toNanos();
+            Mono<ResponseEntity<Object>> attempt = requestPolicy.timed(Mono.defer(() -> {
+                        if (reactive) {
+                            return exchangeReactive(method, path, userId, parameters, payload, deadline);
+                        }
+                        Mono<ResponseEntity<Object>> call = Mono.fromCallable(() ->
+                                exchange(method, path, userId, parameters, payload, deadline));
+                        return hedged ? call.subscribeOn(blockingScheduler) : call;
+                    }))
+                    .flatMap(BaseClient::failOnServerError);
+            if (method == HttpMethod.GET) {
+                //Retried blocking calls wait out their backoff and run on the blocking scheduler, not the timer's thread
+                attempt = requestPolicy.retried(requestPolicy.hedged(attempt), deadline,
+                        reactive ? Schedulers.parallel() : blockingScheduler);
+            }
+            return attempt.timeout(requestPolicy.getDeadline());
+        });
+        Mono<ResponseEntity<Object>> isolated = isolate(response, circuitBreaker, bulkhead);
+        if (method == HttpMethod.GET) {
+            return coalesce(userId + " " + path + " " + (parameters != null ? new TreeMap<>(parameters) : ""),
+                    isolated);
+        }
+        return isolated;
+    }
+
+    //A body the gateway does not hold in memory, read from the client while it is sent on. It can be read only
+    //once, so the call is neither retried nor hedged, and it is not cut off by the request deadline.
+    //Its duration depends on the body, so it stays out of the latency the hedges are timed by, and it has
+    //a circuit breaker and a bulkhead of its own, named after the whole path (items-import): a long stream neither
+    //holds a permit of the client's other calls nor counts as their slow call
+    protected Mono<ResponseEntity<Object>> postStream(String path, long userId, MediaType contentType,
+                                                      Flux<DataBuffer> body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.setAccept(List.of(wireFormat.getMediaType()));
+        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        Mono<ResponseEntity<Object>> response = web.post()
+                .uri(path)
+                .headers(requestHeaders -> requestHeaders.addAll(headers))
+                .body(BodyInserters.fromDataBuffers(body.subscribeOn(blockingScheduler)))
+                .exchangeToMono(serverResponse -> serverResponse.toEntity(byte[].class))
+                .map(serverResponse -> prepareGatewayResponse(serverResponse.getStatusCode(),
+                        serverResponse.getHeaders(), serverResponse.getBody()))
+                .flatMap(BaseClient::failOnServerError);
+        return isolate(response, clients.circuitBreaker(apiPrefix + path), clients.bulkhead(apiPrefix + path));
+    }
+
+    //Server errors count as failures of the circuit breaker but still reach the client as they are.
+    //The bulkhead is outermost, so calls it rejects are not failures of the circuit breaker
+    private static Mono<ResponseEntity<Object>> isolate(Mono<ResponseEntity<Object>> response,
+                                                        CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+        return response
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(ServerErrorResponseException.class, e -> Mono.just(e.getResponse()));
+    }
+
+    //The first caller sends the request, the rest share its response until it arrives.
+    //The entry is dropped as soon as the call ends, so nothing is served after that
+    private Mono<ResponseEntity<Object>> coalesce(String key, Mono<ResponseEntity<Object>> call) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> call
+                .doFinally(signal -> inFlight.remove(k))
+                .share()));
+    }
+
+    private static Mono<ResponseEntity<Object>> failOnServerError(ResponseEntity<Object> response) {
+        if (response.getStatusCode().is5xxServerError()) {
+            return Mono.error(new ServerErrorResponseException(response));
+        }
+        return Mono.just(response);
+    }
+
+    private <T> ResponseEntity<Object> exchange(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, long deadline) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId, deadline));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchangeReactive(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, long deadline) {
+        WebClient.RequestBodySpec request = web.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId, deadline)));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        return spec.exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(response -> prepareGatewayResponse(response.getStatusCode(), response.getHeaders(),
+                        response.getBody()));
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
+    //Smile bodies are encoded here once, JSON ones by the client's converters
+    @Nullable
+    private Object encode(@Nullable Object body) {
+        if (body == null || wireFormat != WireFormat.SMILE) {
+            return body;
+        }
+        try {
+            return smileMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpHeaders defaultHeaders(Long userId, long deadline) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.setContentType(wireFormat.getMediaType());
+        headers.setAccept(List.of(wireFormat.getMediaType()));
+        headers.set(HEADER_REQUEST_TIMEOUT,
+                String.valueOf(Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    //Server bytes and end-to-end headers are passed to the client without parsing the body
+    static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, @Nullable HttpHeaders serverHeaders,
+                                                         @Nullable byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.addAll(name, values);
+                }
+            });
         }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        //Clients of the gateway get JSON instead of Smile; any other body keeps the type the server gave it
+        MediaType contentType = headers.getContentType();
+        if (body != null && contentType != null && contentType.equalsTypeAndSubtype(WireFormat.SMILE.getMediaType())
+                && SmileTranscoder.isSmile(body)) {
+            body = SmileTranscoder.toJson(body);
+            headers.setContentType(MediaType.APPLICATION_JSON);
         }
-
-        return responseBuilder.build();
+        return new ResponseEntity<>(body, headers, status);
     }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit-server.health-check")
+public class HealthCheckProperties {
+    private String path = "/actuator/health";
+
+    private Duration interval = Duration.ofSeconds(5);
+
+    //A server not answering in time is taken out of rotation until it does
+    private Duration timeout = Duration.ofSeconds(2);
+}
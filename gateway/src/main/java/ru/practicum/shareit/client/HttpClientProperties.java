@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//Connection pool shared by all clients of shareit-server
+@Data
+@ConfigurationProperties(prefix = "shareit-server.pool")
+public class HttpClientProperties {
+    private int maxTotal = 200;
+
+    private int maxPerRoute = 100;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    //How long a request waits for a free connection
+    private Duration leaseTimeout = Duration.ofSeconds(2);
+
+    //Used when the server does not send a Keep-Alive header
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    private Duration idleTimeout = Duration.ofSeconds(30);
+
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
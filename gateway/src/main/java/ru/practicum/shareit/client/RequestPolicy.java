@@ -0,0 +1,109 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Deadline, retries and hedging of the calls of one client
+class RequestPolicy {
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(502, 503, 504);
+
+    private final RequestPolicyProperties properties;
+    private final Timer latency;
+    private final Counter retries;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private volatile long hedgeDelayNanos;
+    private volatile long hedgeDelayRefreshedAt;
+
+    RequestPolicy(String client, RequestPolicyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.latency = Timer.builder("gateway.server.latency")
+                .tag("client", client)
+                .publishPercentiles(HEDGE_PERCENTILE)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.retries = meterRegistry.counter("gateway.server.retries", "client", client);
+        this.hedgesSent = meterRegistry.counter("gateway.server.hedges.sent", "client", client);
+        this.hedgesWon = meterRegistry.counter("gateway.server.hedges.won", "client", client);
+        this.hedgeDelayNanos = properties.getHedge().getMinDelay().toNanos();
+        this.hedgeDelayRefreshedAt = System.nanoTime();
+    }
+
+    Duration getDeadline() {
+        return properties.getDeadline();
+    }
+
+    //Latency of answered calls, the base of the hedge delay
+    <T> Mono<T> timed(Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(response -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    boolean isHedged() {
+        return properties.getHedge().isEnabled();
+    }
+
+    //The first answer wins and the other call is cancelled; an error of the first call is not hedged
+    <T> Mono<T> hedged(Mono<T> call) {
+        if (!properties.getHedge().isEnabled()) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            Mono<T> hedge = call
+                    .doOnSubscribe(subscription -> hedgesSent.increment())
+                    .doOnSuccess(response -> hedgesWon.increment())
+                    .delaySubscription(Duration.ofNanos(hedgeDelay()));
+            return Flux.merge(call, hedge).next();
+        });
+    }
+
+    //The backoff is waited out on the scheduler, which then sends the retry
+    <T> Mono<T> retried(Mono<T> call, long deadline, Scheduler scheduler) {
+        RequestPolicyProperties.Retry retry = properties.getRetry();
+        if (retry.getMaxRetries() <= 0) {
+            return call;
+        }
+        return call.retryWhen(Retry.backoff(retry.getMaxRetries(), retry.getBackoff())
+                .jitter(retry.getJitter())
+                .scheduler(scheduler)
+                .filter(e -> isRetryable(e) && System.nanoTime() < deadline)
+                .doBeforeRetry(signal -> retries.increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private long hedgeDelay() {
+        long now = System.nanoTime();
+        if (now - hedgeDelayRefreshedAt > HEDGE_DELAY_REFRESH_NANOS) {
+            long p95 = 0;
+            for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+                p95 = (long) percentile.value(TimeUnit.NANOSECONDS);
+            }
+            hedgeDelayNanos = Math.max(properties.getHedge().getMinDelay().toNanos(), p95);
+            hedgeDelayRefreshedAt = now;
+        }
+        return hedgeDelayNanos;
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof ServerErrorResponseException) {
+            return RETRYABLE_STATUSES.contains(((ServerErrorResponseException) e).getResponse().getStatusCodeValue());
+        }
+        return e instanceof ResourceAccessException || e instanceof WebClientRequestException;
+    }
+}
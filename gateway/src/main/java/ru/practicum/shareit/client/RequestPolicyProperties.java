@@ -0,0 +1,40 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit-server.requests")
+public class RequestPolicyProperties {
+    //Time for one request to the gateway with all its retries; what is left goes to the server in a header
+    private Duration deadline = Duration.ofSeconds(10);
+
+    //Item imports stream their body, so they have no deadline; this only ends the async request of one
+    private Duration importTimeout = Duration.ofMinutes(10);
+
+    private Retry retry = new Retry();
+
+    private Hedge hedge = new Hedge();
+
+    //GETs failed on the way to the server or answered with 502, 503 or 504
+    @Data
+    public static class Retry {
+        private int maxRetries = 2;
+
+        private Duration backoff = Duration.ofMillis(50);
+
+        //Share of the backoff randomized so retries of many requests do not come at once
+        private double jitter = 0.5;
+    }
+
+    //A second GET is sent when the first one takes longer than p95 of the client's latency
+    @Data
+    public static class Hedge {
+        private boolean enabled = false;
+
+        //Used until there is latency to derive p95 from, and as its lower bound
+        private Duration minDelay = Duration.ofMillis(20);
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.scheduler.Scheduler;
+
+//Builds the blocking and the reactive client of shareit-server for one API prefix together with its
+//circuit breaker, bulkhead and request policy, named after the prefix: users, items, bookings, requests.
+//Calls isolated from the rest of their client use instances named after their whole path, like items-import
+@Component
+@EnableConfigurationProperties(RequestPolicyProperties.class)
+public class ServerClientFactory {
+    private final ServerLoadBalancer loadBalancer;
+    private final boolean reactive;
+    private final WireFormat wireFormat;
+    private final ObjectMapper smileMapper;
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
+    private final WebClient.Builder webClientBuilder;
+    private final ReactorClientHttpConnector clientConnector;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final RequestPolicyProperties requestPolicyProperties;
+    private final MeterRegistry meterRegistry;
+    private final Scheduler blockingScheduler;
+
+    public ServerClientFactory(ServerLoadBalancer loadBalancer,
+                               @Value("${shareit-server.reactive:false}") boolean reactive,
+                               @Value("${shareit-server.wire-format:json}") WireFormat wireFormat,
+                               Jackson2ObjectMapperBuilder objectMapperBuilder,
+                               RestTemplateBuilder restTemplateBuilder,
+                               HttpComponentsClientHttpRequestFactory requestFactory,
+                               WebClient.Builder webClientBuilder,
+                               ReactorClientHttpConnector clientConnector,
+                               CircuitBreakerRegistry circuitBreakerRegistry,
+                               BulkheadRegistry bulkheadRegistry,
+                               RequestPolicyProperties requestPolicyProperties,
+                               MeterRegistry meterRegistry,
+                               Scheduler shareItBlockingScheduler) {
+        this.loadBalancer = loadBalancer;
+        this.reactive = reactive;
+        this.wireFormat = wireFormat;
+        this.smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        this.restTemplateBuilder = restTemplateBuilder;
+        this.requestFactory = requestFactory;
+        this.webClientBuilder = webClientBuilder;
+        this.clientConnector = clientConnector;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.requestPolicyProperties = requestPolicyProperties;
+        this.meterRegistry = meterRegistry;
+        this.blockingScheduler = shareItBlockingScheduler;
+    }
+
+    //Reactive mode keeps servlet threads free while the server answers
+    public boolean isReactive() {
+        return reactive;
+    }
+
+    public Scheduler blockingScheduler() {
+        return blockingScheduler;
+    }
+
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    //Request bodies in Smile, written with the same settings as JSON
+    public ObjectMapper smileMapper() {
+        return smileMapper;
+    }
+
+    public RestTemplate restTemplate(String apiPrefix) {
+        return restTemplateBuilder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(ServerLoadBalancer.LOGICAL_URL + apiPrefix))
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(loadBalancer)
+                .build();
+    }
+
+    public WebClient webClient(String apiPrefix) {
+        return webClientBuilder.clone()
+                .uriBuilderFactory(new DefaultUriBuilderFactory(ServerLoadBalancer.LOGICAL_URL + apiPrefix))
+                .clientConnector(clientConnector)
+                .filter(loadBalancer)
+                .build();
+    }
+
+    public CircuitBreaker circuitBreaker(String apiPrefix) {
+        return circuitBreakerRegistry.circuitBreaker(instanceName(apiPrefix));
+    }
+
+    public Bulkhead bulkhead(String apiPrefix) {
+        return bulkheadRegistry.bulkhead(instanceName(apiPrefix));
+    }
+
+    RequestPolicy requestPolicy(String apiPrefix) {
+        return new RequestPolicy(instanceName(apiPrefix), requestPolicyProperties, meterRegistry);
+    }
+
+    private static String instanceName(String apiPrefix) {
+        return apiPrefix.substring(1).replace('/', '-');
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.client;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//One shareit-server instance with the requests it is answering right now
+class ServerEndpoint {
+    private final String baseUrl;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean healthy = true;
+
+    ServerEndpoint(String url) {
+        this.baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    int getOutstanding() {
+        return outstanding.get();
+    }
+
+    void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    void release() {
+        outstanding.decrementAndGet();
+    }
+
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    //true if the state has changed
+    boolean setHealthy(boolean healthy) {
+        boolean changed = this.healthy != healthy;
+        this.healthy = healthy;
+        return changed;
+    }
+
+    //Path and query of a request to the logical server on this instance
+    URI resolve(URI logical) {
+        String query = logical.getRawQuery();
+        return URI.create(baseUrl + logical.getRawPath() + (query != null ? "?" + query : ""));
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+
+//5xx response of shareit-server carried through the circuit breaker as a failure
+@Getter
+class ServerErrorResponseException extends RuntimeException {
+    private final transient ResponseEntity<Object> response;
+
+    ServerErrorResponseException(ResponseEntity<Object> response) {
+        super("Ошибка сервера, статус " + response.getStatusCodeValue(), null, false, false);
+        this.response = response;
+    }
+}
@@ -0,0 +1,208 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+//Spreads requests to the logical server over shareit-server.url instances: of two random healthy instances
+//the one with fewer outstanding requests is taken. A request that cannot connect is sent to another instance
+@Slf4j
+@Component
+@EnableConfigurationProperties(HealthCheckProperties.class)
+public class ServerLoadBalancer implements ClientHttpRequestInterceptor, ExchangeFilterFunction {
+    //Host the clients address, replaced with a real instance for each request
+    public static final String LOGICAL_URL = "http://shareit-server";
+
+    private final List<ServerEndpoint> endpoints;
+    private final HealthCheckProperties healthCheck;
+    private final WebClient healthClient;
+    private Disposable healthChecks;
+
+    public ServerLoadBalancer(@Value("${shareit-server.url}") List<String> urls,
+                              HealthCheckProperties healthCheck,
+                              WebClient.Builder webClientBuilder,
+                              ReactorClientHttpConnector clientConnector,
+                              MeterRegistry meterRegistry) {
+        this.endpoints = urls.stream()
+                .map(ServerEndpoint::new)
+                .collect(Collectors.toUnmodifiableList());
+        this.healthCheck = healthCheck;
+        this.healthClient = webClientBuilder.clone()
+                .clientConnector(clientConnector)
+                .build();
+        for (ServerEndpoint endpoint : endpoints) {
+            Gauge.builder("gateway.server.outstanding", endpoint, ServerEndpoint::getOutstanding)
+                    .tag("endpoint", endpoint.getBaseUrl())
+                    .register(meterRegistry);
+            Gauge.builder("gateway.server.healthy", endpoint, e -> e.isHealthy() ? 1 : 0)
+                    .tag("endpoint", endpoint.getBaseUrl())
+                    .register(meterRegistry);
+        }
+    }
+
+    //A single server has nowhere to route around, it is not checked
+    @PostConstruct
+    public void startHealthChecks() {
+        if (endpoints.size() > 1) {
+            healthChecks = Flux.interval(healthCheck.getInterval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> Flux.fromIterable(endpoints).flatMap(this::checkHealth))
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stopHealthChecks() {
+        if (healthChecks != null) {
+            healthChecks.dispose();
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ServerEndpoint endpoint = choose(null);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return execute(endpoint, request, body, execution);
+            } catch (IOException e) {
+                if (!isConnectFailure(e)) {
+                    throw e;
+                }
+                markDown(endpoint, e);
+                if (attempt >= endpoints.size()) {
+                    throw e;
+                }
+                endpoint = choose(endpoint);
+            }
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return exchange(choose(null), request, next, 1);
+    }
+
+    private ClientHttpResponse execute(ServerEndpoint endpoint, HttpRequest request, byte[] body,
+                                       ClientHttpRequestExecution execution) throws IOException {
+        URI uri = endpoint.resolve(request.getURI());
+        endpoint.acquire();
+        try {
+            return execution.execute(new HttpRequestWrapper(request) {
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+            }, body);
+        } finally {
+            endpoint.release();
+        }
+    }
+
+    private Mono<ClientResponse> exchange(ServerEndpoint endpoint, ClientRequest request, ExchangeFunction next,
+                                          int attempt) {
+        return Mono.defer(() -> {
+                    endpoint.acquire();
+                    return next.exchange(ClientRequest.from(request).url(endpoint.resolve(request.url())).build())
+                            .doFinally(signal -> endpoint.release());
+                })
+                .doOnError(ServerLoadBalancer::isConnectFailure, e -> markDown(endpoint, e))
+                .onErrorResume(e -> isConnectFailure(e) && attempt < endpoints.size(),
+                        e -> exchange(choose(endpoint), request, next, attempt + 1));
+    }
+
+    //Power of two choices; when every instance is down they are all tried anyway
+    ServerEndpoint choose(@Nullable ServerEndpoint exclude) {
+        List<ServerEndpoint> candidates = new ArrayList<>(endpoints.size());
+        for (ServerEndpoint endpoint : endpoints) {
+            if (endpoint.isHealthy() && endpoint != exclude) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            for (ServerEndpoint endpoint : endpoints) {
+                if (endpoint != exclude || endpoints.size() == 1) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServerEndpoint a = candidates.get(first);
+        ServerEndpoint b = candidates.get(second);
+        return b.getOutstanding() < a.getOutstanding() ? b : a;
+    }
+
+    private Mono<Boolean> checkHealth(ServerEndpoint endpoint) {
+        return healthClient.get()
+                .uri(endpoint.getBaseUrl() + healthCheck.getPath())
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(healthCheck.getTimeout())
+                .map(response -> true)
+                .onErrorReturn(false)
+                .doOnNext(healthy -> {
+                    if (endpoint.setHealthy(healthy)) {
+                        if (healthy) {
+                            log.info("Сервер {} снова доступен", endpoint.getBaseUrl());
+                        } else {
+                            log.warn("Сервер {} не прошел проверку состояния", endpoint.getBaseUrl());
+                        }
+                    }
+                });
+    }
+
+    //Back in rotation after the next successful health check
+    private void markDown(ServerEndpoint endpoint, Throwable e) {
+        if (endpoints.size() > 1 && endpoint.setHealthy(false)) {
+            log.warn("Сервер {} недоступен: {}", endpoint.getBaseUrl(), e.getMessage());
+        }
+    }
+
+    //The request has not reached the server, so it is safe to send it to another one
+    private static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.experimental.UtilityClass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+//Smile responses of the server become JSON token by token, without binding them to objects
+@UtilityClass
+class SmileTranscoder {
+    private static final SmileFactory SMILE = new SmileFactory();
+    private static final JsonFactory JSON = new JsonFactory();
+
+    //Smile documents start with ":)\n"; the server writes plain text errors as they are
+    static boolean isSmile(byte[] body) {
+        return body.length >= 3 && body[0] == ':' && body[1] == ')' && body[2] == '\n';
+    }
+
+    static byte[] toJson(byte[] smile) {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(smile.length * 2);
+        try (JsonParser parser = SMILE.createParser(smile);
+             JsonGenerator generator = JSON.createGenerator(json)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toByteArray();
+    }
+}
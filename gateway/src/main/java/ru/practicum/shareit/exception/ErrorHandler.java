@@ -1,6 +1,9 @@
 package ru.practicum.shareit.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -9,6 +12,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import javax.validation.ConstraintViolationException;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @RestControllerAdvice
@@ -49,4 +53,38 @@ public class ErrorHandler {
                 HttpStatus.BAD_REQUEST);
         return new ErrorResponse(e.getMessage());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(final TooManyRequestsException e) {
+        log.debug("TooManyRequestsException. Произошла ошибка {}, статус ошибки {}", e.getMessage(),
+                HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getMessage()));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleCallNotPermittedException(final CallNotPermittedException e) {
+        log.warn("CallNotPermittedException. Произошла ошибка {}, статус ошибки {}", e.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE);
+        return new ErrorResponse("Сервер временно недоступен, повторите запрос позже.");
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleBulkheadFullException(final BulkheadFullException e) {
+        log.warn("BulkheadFullException. Произошла ошибка {}, статус ошибки {}", e.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE);
+        return new ErrorResponse("Сервер перегружен, повторите запрос позже.");
+    }
+
+    //Deadline of the request to the gateway ran out while the server was answering
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public ErrorResponse handleTimeoutException(final TimeoutException e) {
+        log.warn("TimeoutException. Произошла ошибка {}, статус ошибки {}", e.getMessage(),
+                HttpStatus.GATEWAY_TIMEOUT);
+        return new ErrorResponse("Сервер не ответил вовремя, повторите запрос позже.");
+    }
+}
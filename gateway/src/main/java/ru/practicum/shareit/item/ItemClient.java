@@ -1,13 +1,14 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerClientFactory;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -17,42 +18,45 @@ import java.util.Map;
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final ItemSearchCache searchCache;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerClientFactory clients, ItemSearchCache searchCache) {
+        super(clients, API_PREFIX);
+        this.searchCache = searchCache;
     }
 
-    public ResponseEntity<Object> add(long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> add(long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> update(long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> importItems(long userId, MediaType contentType, Flux<DataBuffer> body) {
+        return postStream("/import", userId, contentType, body);
+    }
+
+    public Mono<ResponseEntity<Object>> update(long userId, ItemDto itemDto) {
         return patch("/" + itemDto.getId(), userId, itemDto);
     }
 
-    public ResponseEntity<Object> findById(long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> findById(long itemId, long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> searchItemsByText(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchItemsByText(String text, Integer from, Integer size, boolean noCache) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", 0L, parameters);
+        return searchCache.get(text, from, size, noCache,
+                () -> get("/search?text={text}&from={from}&size={size}", 0L, parameters));
     }
 
-    public ResponseEntity<Object> addComment(CommentDto commentDto, long userId, long itemId) {
+    public Mono<ResponseEntity<Object>> addComment(CommentDto commentDto, long userId, long itemId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 
-    public ResponseEntity<Object> getAllItemsByOwner(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllItemsByOwner(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -2,6 +2,10 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,14 +17,20 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.RequestPolicyProperties;
 import ru.practicum.shareit.common.Create;
 import ru.practicum.shareit.common.Update;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -30,56 +40,84 @@ import java.time.LocalDateTime;
 public class ItemController {
 
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final int IMPORT_BUFFER_SIZE = 8192;
 
     private final ItemClient itemClient;
+    private final RequestPolicyProperties requestPolicyProperties;
 
     @PostMapping()
-    public ResponseEntity<Object> add(@RequestHeader(HEADER_USER_ID) long userId,
-                                      @Validated({Create.class}) @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> add(@RequestHeader(HEADER_USER_ID) long userId,
+                                            @Validated({Create.class}) @RequestBody ItemDto itemDto) {
         log.info("Добавление новой вещи {}", itemDto);
         return itemClient.add(userId, itemDto);
     }
 
+    //Rows are validated by the server, the body is passed on as it arrives. Only this request waits longer
+    //than the async timeout all the others share
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public DeferredResult<ResponseEntity<Object>> importItems(@RequestHeader(HEADER_USER_ID) long userId,
+                                                              @RequestHeader(HttpHeaders.CONTENT_TYPE)
+                                                              MediaType contentType,
+                                                              HttpServletRequest request) {
+        log.info("Импорт вещей пользователя с id {}", userId);
+        DeferredResult<ResponseEntity<Object>> result =
+                new DeferredResult<>(requestPolicyProperties.getImportTimeout().toMillis());
+        Disposable call = itemClient.importItems(userId, contentType, DataBufferUtils.readInputStream(
+                        request::getInputStream, DefaultDataBufferFactory.sharedInstance, IMPORT_BUFFER_SIZE))
+                .subscribe(result::setResult, result::setErrorResult);
+        result.onTimeout(() -> {
+            call.dispose();
+            result.setErrorResult(new TimeoutException("Импорт вещей пользователя " + userId + " не завершен за "
+                    + requestPolicyProperties.getImportTimeout()));
+        });
+        result.onError(error -> call.dispose());
+        return result;
+    }
+
     @PatchMapping("{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader(HEADER_USER_ID) long userId,
-                                         @Validated({Update.class}) @RequestBody ItemDto itemDto,
-                                         @PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> update(@RequestHeader(HEADER_USER_ID) long userId,
+                                               @Validated({Update.class}) @RequestBody ItemDto itemDto,
+                                               @PathVariable long itemId) {
         itemDto.setId(itemId);
         log.info("Обновление вещи {}, id {}", itemDto.getName(), itemId);
         return itemClient.update(userId, itemDto);
     }
 
     @GetMapping("{itemId}")
-    public ResponseEntity<Object> findById(@RequestHeader(HEADER_USER_ID) long userId,
-                                           @PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> findById(@RequestHeader(HEADER_USER_ID) long userId,
+                                                 @PathVariable long itemId) {
         log.info("Получение вещи id {}", itemId);
         return itemClient.findById(itemId, userId);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getAll(@RequestHeader(HEADER_USER_ID) long userId,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                         Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10")
-                                         Integer size) {
+    public Mono<ResponseEntity<Object>> getAll(@RequestHeader(HEADER_USER_ID) long userId,
+                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                               Integer from,
+                                               @Positive @RequestParam(name = "size", defaultValue = "10")
+                                               Integer size) {
         log.info("Обновление всех вещей пользователя с id {}, from = {}, size = {}", userId, from, size);
         return itemClient.getAllItemsByOwner(userId, from, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItemsByText(@RequestParam("text") String text,
-                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                    Integer from,
-                                                    @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                    Integer size) {
+    public Mono<ResponseEntity<Object>> searchItemsByText(@RequestParam("text") String text,
+                                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                          Integer from,
+                                                          @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                          Integer size,
+                                                          @RequestHeader(value = HttpHeaders.CACHE_CONTROL,
+                                                                  required = false) String cacheControl) {
         log.info("Поиск вещей по тексту \"{}\", from = {}, size = {}", text, from, size);
-        return itemClient.searchItemsByText(text, from, size);
+        //Cache-Control: no-cache asks for a fresh answer of the server
+        boolean noCache = cacheControl != null && cacheControl.contains("no-cache");
+        return itemClient.searchItemsByText(text, from, size, noCache);
     }
 
     @PostMapping("{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(HEADER_USER_ID) long userId,
-                                             @Validated({Create.class}) @RequestBody CommentDto commentDto,
-                                             @PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader(HEADER_USER_ID) long userId,
+                                                   @Validated({Create.class}) @RequestBody CommentDto commentDto,
+                                                   @PathVariable long itemId) {
         commentDto.setCreated(LocalDateTime.now());
         log.info("Добавление отзыва для вещи с id {}", itemId);
         return itemClient.addComment(commentDto, userId, itemId);
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+//Search results do not depend on the user, so one cached response serves everybody
+@Component
+@EnableConfigurationProperties(ItemSearchCacheProperties.class)
+public class ItemSearchCache {
+    //Rough size of an entry without the body and the key: entry, response entity, headers
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final boolean enabled;
+    private final Cache<String, ResponseEntity<Object>> cache;
+
+    public ItemSearchCache(ItemSearchCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTtl())
+                .maximumWeight(properties.getMaxMemory().toBytes())
+                .weigher(ItemSearchCache::weigh)
+                .recordStats()
+                .build();
+        //cache.gets with result hit and miss, cache.evictions, cache.size under cache=item-search
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "item-search");
+        meterRegistry.gauge("cache.hit.ratio", Tags.of("cache", "item-search"), cache, c -> c.stats().hitRate());
+    }
+
+    //A bypassing request goes to the server and refreshes the entry with what it gets
+    public Mono<ResponseEntity<Object>> get(String text, int from, int size, boolean bypass,
+                                            Supplier<Mono<ResponseEntity<Object>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String key = key(text, from, size);
+        if (!bypass) {
+            ResponseEntity<Object> cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+        }
+        return loader.get().doOnNext(response -> {
+            if (response.getStatusCode() == HttpStatus.OK) {
+                cache.put(key, response);
+            }
+        });
+    }
+
+    //The server compares upper() of each character and reads the page containing from
+    static String key(String text, int from, int size) {
+        StringBuilder key = new StringBuilder(text.length() + 16);
+        text.codePoints().map(Character::toUpperCase).forEach(key::appendCodePoint);
+        return key.append('\n').append(from / size * size).append('\n').append(size).toString();
+    }
+
+    private static int weigh(String key, ResponseEntity<Object> response) {
+        Object body = response.getBody();
+        int bodySize = body instanceof byte[] ? ((byte[]) body).length : 0;
+        return ENTRY_OVERHEAD + key.length() * 2 + bodySize;
+    }
+}
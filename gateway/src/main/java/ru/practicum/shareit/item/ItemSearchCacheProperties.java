@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "search-cache")
+public class ItemSearchCacheProperties {
+    private boolean enabled = true;
+
+    //Time a search response is served without asking the server
+    private Duration ttl = Duration.ofSeconds(30);
+
+    //Bound on cached bodies and keys, least recently used entries are evicted first
+    private DataSize maxMemory = DataSize.ofMegabytes(16);
+}
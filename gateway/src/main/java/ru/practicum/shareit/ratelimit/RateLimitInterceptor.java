@@ -0,0 +1,80 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Token bucket per user and endpoint group; users without X-Sharer-User-Id are keyed on their address
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String DEFAULT_GROUP = "default";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    //Clock of both the buckets and their expiry
+    private final Ticker ticker;
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry, Ticker ticker) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxBuckets())
+                .ticker(ticker)
+                .build();
+        meterRegistry.gauge("gateway.rate.limit.buckets", buckets, Cache::estimatedSize);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        //Reactive responses come back on an async dispatch that was already counted
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Map.Entry<String, RateLimitProperties.Limit> group = findGroup(request.getRequestURI());
+        RateLimitProperties.Limit limit = group.getValue();
+        String user = request.getHeader(HEADER_USER_ID);
+        if (user == null) {
+            user = request.getRemoteAddr();
+        }
+        long now = ticker.read();
+        TokenBucket bucket = buckets.get(group.getKey() + ':' + user,
+                key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond(), now));
+        long wait = bucket.tryConsume(now);
+        if (wait == 0) {
+            return true;
+        }
+        //Tagged by group only: one meter per user would grow with every client ever seen
+        meterRegistry.counter("gateway.rate.limit.rejected", "group", group.getKey()).increment();
+        throw new TooManyRequestsException(String.format("Превышен лимит запросов пользователя %s к %s!", user,
+                group.getKey()), Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+    }
+
+    private Map.Entry<String, RateLimitProperties.Limit> findGroup(String path) {
+        for (Map.Entry<String, RateLimitProperties.Limit> group : properties.getGroups().entrySet()) {
+            for (String pattern : group.getValue().getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return Map.entry(DEFAULT_GROUP, properties.getDefaults());
+    }
+}
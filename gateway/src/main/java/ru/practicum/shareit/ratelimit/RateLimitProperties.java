@@ -0,0 +1,36 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    //Buckets of users idle this long are dropped
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private long maxBuckets = 100_000;
+
+    //Limit for paths outside of all groups
+    private Limit defaults = new Limit();
+
+    //Checked in order, the first group with a matching path wins
+    private Map<String, Limit> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+        private List<String> paths = new ArrayList<>();
+
+        private int capacity = 100;
+
+        private double refillPerSecond = 50;
+    }
+}
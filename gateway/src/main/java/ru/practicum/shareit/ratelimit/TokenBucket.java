@@ -0,0 +1,31 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Lock-free token bucket kept as the time the bucket becomes full again (GCRA)
+class TokenBucket {
+    private final long refillNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.refillNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.capacityNanos = refillNanos * capacity;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    //0 if a token was taken, otherwise nanoseconds until the next one
+    long tryConsume(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + refillNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
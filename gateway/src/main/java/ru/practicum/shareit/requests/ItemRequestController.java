@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.common.Create;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 
@@ -30,31 +31,35 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader(HEADER_USER_ID) Long userId,
-                                      @Validated({Create.class}) @RequestBody ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> add(@RequestHeader(HEADER_USER_ID) Long userId,
+                                            @Validated({Create.class}) @RequestBody ItemRequestDto itemRequestDto) {
         log.info("Добавление нового запроса, описание: {}", itemRequestDto.getDescription());
         return itemRequestClient.add(userId, itemRequestDto);
     }
 
     @GetMapping()
-    public ResponseEntity<Object>  getByOwner(@RequestHeader(HEADER_USER_ID) long userId) {
-        log.info("Получение списка запросов пользователя с id = {}", userId);
-        return itemRequestClient.getByOwner(userId);
+    public Mono<ResponseEntity<Object>>  getByOwner(@RequestHeader(HEADER_USER_ID) long userId,
+                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                    Integer from,
+                                                    @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                    Integer size) {
+        log.info("Получение списка запросов пользователя с id = {}, from={}, size={}", userId, from, size);
+        return itemRequestClient.getByOwner(userId, from, size);
     }
 
     @GetMapping("{requestId}")
-    public ResponseEntity<Object>  getById(@RequestHeader(HEADER_USER_ID) long userId,
-                                     @PathVariable long requestId) {
+    public Mono<ResponseEntity<Object>>  getById(@RequestHeader(HEADER_USER_ID) long userId,
+                                           @PathVariable long requestId) {
         log.info("Получение запроса id = {}", requestId);
         return itemRequestClient.getById(userId, requestId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object>  getAll(@RequestHeader(HEADER_USER_ID) long userId,
-                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                Integer size) {
+    public Mono<ResponseEntity<Object>>  getAll(@RequestHeader(HEADER_USER_ID) long userId,
+                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                      Integer from,
+                                                      @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                      Integer size) {
         log.info("Получение списка запросов пользователя с id = {}", userId);
         return itemRequestClient.getAll(userId, from, size);
     }
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.common.Create;
 import ru.practicum.shareit.common.Update;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -25,32 +26,32 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping()
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Object>> getAll() {
         return userClient.getAll();
     }
 
     @PostMapping()
-    public ResponseEntity<Object>  add(@Validated({Create.class}) @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>>  add(@Validated({Create.class}) @RequestBody UserDto userDto) {
         log.info("Добавление нового пользователя {}", userDto);
         return userClient.add(userDto);
     }
 
     @PatchMapping("{userId}")
-    public ResponseEntity<Object>  update(@PathVariable long userId,
-                          @Validated({Update.class}) @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>>  update(@PathVariable long userId,
+                                @Validated({Update.class}) @RequestBody UserDto userDto) {
         userDto.setId(userId);
         log.info("Обновление пользователя id = {}, {}", userId, userDto);
         return userClient.update(userId, userDto);
     }
 
     @DeleteMapping("{userId}")
-    public void delete(@PathVariable long userId) {
-        userClient.delete(userId);
-        log.info("Пользователь с id {} удален!", userId);
+    public Mono<Void> delete(@PathVariable long userId) {
+        return userClient.delete(userId)
+                .then(Mono.fromRunnable(() -> log.info("Пользователь с id {} удален!", userId)));
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object>  getById(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>>  getById(@PathVariable long userId) {
         return userClient.getById(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "shareit-server.reactive=true")
+class ReactiveServerRequestPolicyTest extends ServerRequestPolicyTest {
+}
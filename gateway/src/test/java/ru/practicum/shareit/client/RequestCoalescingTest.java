@@ -0,0 +1,79 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestCoalescingTest extends StubServerTest {
+
+    //Every call answered after 500 ms with its number, the requested path and user
+    @BeforeEach
+    void beforeEach() {
+        stub.route("/").latency(Duration.ofMillis(500)).handler((exchange, call) -> {
+            String user = exchange.getRequestHeaders().getFirst("X-Sharer-User-Id");
+            StubShareItServer.respond(exchange, 200, String.format("{\"call\":%d,\"uri\":\"%s\",\"user\":\"%s\"}",
+                    call, exchange.getRequestURI(), user));
+        });
+    }
+
+    @Test
+    void identicalConcurrentGetsShareOneServerCall() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = sendConcurrently(10, "/items/1", 1);
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+            assertEquals("{\"call\":1,\"uri\":\"/items/1\",\"user\":\"1\"}", response.get().body());
+        }
+        assertEquals(1, stub.route("/").calls());
+
+        //Nothing is kept once the call is over
+        send("/items/1", 1).join();
+        assertEquals(2, stub.route("/").calls());
+    }
+
+    @Test
+    void differentUsersQueriesAndWritesAreNotCoalesced() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        responses.add(send("/items/1", 1));
+        responses.add(send("/items/1", 2));
+        responses.add(send("/items/search?text=drill", 1));
+        responses.add(send("/items/search?text=saw", 1));
+        responses.add(send("/items/search?text=drill&from=10", 1));
+        //Search does not depend on the user
+        responses.add(send("/items/search?text=drill", 2));
+        responses.addAll(sendConcurrently(3, "/users/1", 1));
+        for (int i = 0; i < 3; i++) {
+            responses.add(httpClient.sendAsync(HttpRequest.newBuilder(uri("/bookings/1?approved=true"))
+                    .header("X-Sharer-User-Id", "1")
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build(), HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+        }
+        assertEquals(5 + 1 + 3, stub.route("/").calls());
+    }
+
+    private List<CompletableFuture<HttpResponse<String>>> sendConcurrently(int count, String path, long userId) {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            responses.add(send(path, userId));
+        }
+        return responses;
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String path, long userId) {
+        return httpClient.sendAsync(HttpRequest.newBuilder(uri(path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
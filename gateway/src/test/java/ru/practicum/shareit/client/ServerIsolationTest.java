@@ -0,0 +1,115 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "rate-limit.enabled=false",
+        "resilience4j.bulkhead.instances.bookings.max-concurrent-calls=5",
+        "resilience4j.circuitbreaker.instances.users.sliding-window-size=4",
+        "resilience4j.circuitbreaker.instances.users.minimum-number-of-calls=4",
+        "resilience4j.circuitbreaker.instances.users.wait-duration-in-open-state=500ms",
+        "resilience4j.circuitbreaker.instances.users.permitted-number-of-calls-in-half-open-state=1"
+})
+class ServerIsolationTest extends StubServerTest {
+    private static final Duration BOOKINGS_LATENCY = Duration.ofSeconds(2);
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    //Slow bookings, users failing on demand, fast everything else
+    @BeforeEach
+    void beforeEach() {
+        stub.route("/bookings").latency(BOOKINGS_LATENCY);
+        circuitBreakerRegistry.circuitBreaker("users").reset();
+    }
+
+    @Test
+    void slowBookingsDoNotStarveItems() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> bookings = new ArrayList<>();
+        //Different users, so the calls are not coalesced into one
+        for (int i = 1; i <= 10; i++) {
+            bookings.add(httpClient.sendAsync(request("/bookings", i), HttpResponse.BodyHandlers.ofString()));
+        }
+
+        long start = System.nanoTime();
+        HttpResponse<String> search = send("/items/search?text=a");
+        assertEquals(200, search.statusCode());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(BOOKINGS_LATENCY) < 0);
+
+        int ok = 0;
+        int rejected = 0;
+        for (CompletableFuture<HttpResponse<String>> booking : bookings) {
+            int status = booking.get().statusCode();
+            if (status == 200) {
+                ok++;
+            } else if (status == 503) {
+                rejected++;
+            }
+        }
+        assertEquals(5, ok);
+        assertEquals(5, rejected);
+        assertEquals(25, bulkheadRegistry.bulkhead("items").getMetrics().getAvailableConcurrentCalls());
+        assertEquals(0, meterRegistry.get("resilience4j.bulkhead.available.concurrent.calls")
+                .tag("name", "bookings")
+                .gauge()
+                .value(), 5);
+    }
+
+    @Test
+    void circuitOpensOnServerErrorsAndClosesAfterHalfOpenProbe() throws Exception {
+        StubShareItServer.Route users = stub.route("/users").status(500);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(500, send("/users").statusCode());
+        }
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("users");
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        HttpResponse<String> fastFail = send("/users");
+        assertEquals(503, fastFail.statusCode());
+        assertEquals(4, users.calls());
+        assertEquals(200, send("/items/search?text=a").statusCode());
+
+        users.status(200);
+        Thread.sleep(600);
+        assertEquals(200, send("/users").statusCode());
+        assertEquals(5, users.calls());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, meterRegistry.get("resilience4j.circuitbreaker.not.permitted.calls")
+                .tag("name", "users")
+                .counter()
+                .count());
+    }
+
+    private HttpRequest request(String path, long userId) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("X-Sharer-User-Id", String.valueOf(userId))
+                .build();
+    }
+
+    private HttpResponse<String> send(String path) throws Exception {
+        return httpClient.send(request(path, 1), HttpResponse.BodyHandlers.ofString());
+    }
+}
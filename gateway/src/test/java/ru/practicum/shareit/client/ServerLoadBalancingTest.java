@@ -0,0 +1,140 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "rate-limit.enabled=false",
+        "shareit-server.health-check.interval=100ms"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DirtiesContext
+class ServerLoadBalancingTest {
+    private static final int SERVERS = 4;
+
+    //Stand-ins of shareit-server instances counting the requests they answer
+    private static final List<StubShareItServer> servers = new ArrayList<>();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> servers.stream()
+                .map(StubShareItServer::url)
+                .collect(Collectors.joining(",")));
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        servers.clear();
+        for (int i = 0; i < SERVERS; i++) {
+            servers.add(StubShareItServer.start());
+        }
+    }
+
+    @AfterAll
+    static void afterAll() {
+        servers.forEach(StubShareItServer::stop);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        servers.forEach(StubShareItServer::reset);
+    }
+
+    @Test
+    @Order(1)
+    void requestsAreSpreadEvenly() throws Exception {
+        sendUserRequests(400);
+
+        for (StubShareItServer server : servers) {
+            int requests = requests(server);
+            assertTrue(requests > 60 && requests < 140, "Неравномерная нагрузка: " + requests);
+        }
+    }
+
+    @Test
+    @Order(2)
+    void unhealthyServerIsRoutedAroundUntilItRecovers() throws Exception {
+        StubShareItServer sick = servers.get(1);
+        sick.route("/actuator/health").status(503);
+        awaitHealthy(sick, 0);
+
+        sendUserRequests(100);
+        assertEquals(0, requests(sick));
+
+        sick.route("/actuator/health").status(200);
+        awaitHealthy(sick, 1);
+        sendUserRequests(100);
+        assertTrue(requests(sick) > 0);
+    }
+
+    @Test
+    @Order(3)
+    void requestsToStoppedServerFailOver() throws Exception {
+        StubShareItServer stopped = servers.get(2);
+        stopped.stop();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(200, send("/users/" + i).statusCode());
+        }
+        assertEquals(0, requests(stopped));
+        assertEquals(100, servers.stream().mapToInt(ServerLoadBalancingTest::requests).sum());
+        awaitHealthy(stopped, 0);
+    }
+
+    private void sendUserRequests(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            assertEquals(200, send("/users/" + i).statusCode());
+        }
+    }
+
+    private HttpResponse<String> send(String path) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int requests(StubShareItServer server) {
+        return server.route("/").calls();
+    }
+
+    private void awaitHealthy(StubShareItServer server, double healthy) throws InterruptedException {
+        String endpoint = server.url();
+        for (int i = 0; i < 50; i++) {
+            if (meterRegistry.get("gateway.server.healthy").tag("endpoint", endpoint).gauge().value() == healthy) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Сервер " + endpoint + " не перешел в состояние " + healthy);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "rate-limit.enabled=false",
+        "shareit-server.requests.deadline=1s",
+        "shareit-server.requests.retry.backoff=10ms",
+        "shareit-server.requests.hedge.enabled=true",
+        "shareit-server.requests.hedge.min-delay=100ms"
+})
+class ServerRequestPolicyTest extends StubServerTest {
+    private static final Duration SLOW_LATENCY = Duration.ofSeconds(3);
+
+    //Users unavailable for the first few calls, items slow the first few times, bookings always slow
+    private volatile int userFailures;
+    private volatile int slowItemCalls;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void beforeEach() {
+        userFailures = 0;
+        slowItemCalls = 0;
+        stub.route("/users").handler((exchange, call) ->
+                StubShareItServer.respond(exchange, call <= userFailures ? 503 : 200, "{}"));
+        stub.route("/items").handler((exchange, call) -> {
+            if (call <= slowItemCalls) {
+                StubShareItServer.sleep(SLOW_LATENCY);
+            }
+            StubShareItServer.respond(exchange, 200, "{}");
+        });
+        stub.route("/bookings").latency(SLOW_LATENCY);
+    }
+
+    @Test
+    void getIsRetriedWhileServerIsUnavailable() throws Exception {
+        double retries = counter("gateway.server.retries", "users");
+        userFailures = 2;
+
+        assertEquals(200, send(get("/users/1")).statusCode());
+        assertEquals(3, stub.route("/users").calls());
+        assertEquals(retries + 2, counter("gateway.server.retries", "users"));
+    }
+
+    @Test
+    void postIsNotRetried() throws Exception {
+        userFailures = 1;
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"user\",\"email\":\"user@email.ru\"}"))
+                .build());
+        assertEquals(503, response.statusCode());
+        assertEquals(1, stub.route("/users").calls());
+    }
+
+    @Test
+    void hedgeAnswersInsteadOfSlowCall() throws Exception {
+        double sent = counter("gateway.server.hedges.sent", "items");
+        double won = counter("gateway.server.hedges.won", "items");
+        slowItemCalls = 1;
+
+        long start = System.nanoTime();
+        assertEquals(200, send(get("/items/1")).statusCode());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(900)) < 0);
+        assertEquals(2, stub.route("/items").calls());
+        assertEquals(sent + 1, counter("gateway.server.hedges.sent", "items"));
+        assertEquals(won + 1, counter("gateway.server.hedges.won", "items"));
+    }
+
+    @Test
+    void fastCallIsNotHedged() throws Exception {
+        double sent = counter("gateway.server.hedges.sent", "items");
+
+        assertEquals(200, send(get("/items/1")).statusCode());
+        assertEquals(1, stub.route("/items").calls());
+        assertEquals(sent, counter("gateway.server.hedges.sent", "items"));
+    }
+
+    @Test
+    void requestEndsAtDeadlineAndServerGetsRemainingBudget() throws Exception {
+        long start = System.nanoTime();
+        assertEquals(504, send(get("/bookings/owner")).statusCode());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(SLOW_LATENCY) < 0);
+
+        long timeout = Long.parseLong(stub.route("/bookings").lastHeaders().getFirst("X-Request-Timeout-Ms"));
+        assertTrue(timeout > 0 && timeout <= 1000, "Остаток времени запроса: " + timeout);
+    }
+
+    private double counter(String name, String client) {
+        return meterRegistry.get(name).tag("client", client).counter().count();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("X-Sharer-User-Id", "1").build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SmileTranscoderTest {
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Test
+    void smileBecomesSameJson() throws Exception {
+        String json = "[{\"id\":1,\"name\":\"Дрель\",\"available\":true,\"price\":1.5,"
+                + "\"start\":\"2030-01-01T10:00:00\",\"request\":null,\"tags\":[\"a\",\"b\"]},"
+                + "{\"id\":2,\"name\":\"Дрель\",\"available\":false,\"price\":1.5,"
+                + "\"start\":\"2030-01-01T10:00:00\",\"request\":{\"id\":3},\"tags\":[]}]";
+        byte[] smile = smileMapper.writeValueAsBytes(jsonMapper.readTree(json));
+
+        assertTrue(SmileTranscoder.isSmile(smile));
+        assertTrue(smile.length < json.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(json, new String(SmileTranscoder.toJson(smile), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void plainTextIsNotSmile() {
+        byte[] text = "Пользователь не найден".getBytes(StandardCharsets.UTF_8);
+
+        assertFalse(SmileTranscoder.isSmile(text));
+        assertFalse(SmileTranscoder.isSmile(new byte[0]));
+        assertArrayEquals(new byte[0], SmileTranscoder.toJson(new byte[0]));
+    }
+
+    @Test
+    void onlyTranscodedResponsesAreRelabelledJson() throws Exception {
+        HttpHeaders smileHeaders = new HttpHeaders();
+        smileHeaders.setContentType(WireFormat.SMILE.getMediaType());
+        byte[] smile = smileMapper.writeValueAsBytes(jsonMapper.readTree("{\"id\":1}"));
+
+        ResponseEntity<Object> transcoded = BaseClient.prepareGatewayResponse(HttpStatus.OK, smileHeaders, smile);
+        assertEquals(MediaType.APPLICATION_JSON, transcoded.getHeaders().getContentType());
+        assertArrayEquals("{\"id\":1}".getBytes(StandardCharsets.UTF_8), (byte[]) transcoded.getBody());
+
+        byte[] text = "Пользователь не найден".getBytes(StandardCharsets.UTF_8);
+        ResponseEntity<Object> mislabelled = BaseClient.prepareGatewayResponse(HttpStatus.NOT_FOUND, smileHeaders,
+                text);
+        assertEquals(WireFormat.SMILE.getMediaType(), mislabelled.getHeaders().getContentType());
+        assertArrayEquals(text, (byte[]) mislabelled.getBody());
+
+        HttpHeaders textHeaders = new HttpHeaders();
+        textHeaders.setContentType(MediaType.TEXT_PLAIN);
+        ResponseEntity<Object> plain = BaseClient.prepareGatewayResponse(HttpStatus.NOT_FOUND, textHeaders, text);
+        assertEquals(MediaType.TEXT_PLAIN, plain.getHeaders().getContentType());
+    }
+}
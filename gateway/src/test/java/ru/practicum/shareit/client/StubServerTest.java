@@ -0,0 +1,39 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+
+//The gateway on a random port in front of the shared StubShareItServer. Subclasses with the same properties
+//share one application context; each test starts from a stub answering 200 to everything
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "rate-limit.enabled=false",
+        "shareit-server.requests.import-timeout=5s"
+})
+public abstract class StubServerTest {
+    protected static final StubShareItServer stub = StubShareItServer.shared();
+
+    protected final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    protected int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", stub::url);
+    }
+
+    @BeforeEach
+    void resetStub() {
+        stub.reset();
+    }
+
+    protected URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,156 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Stand-in of a shareit-server instance for gateway tests. Every path answers 200 with {} unless the route of its
+//longest matching prefix is given another status, body, latency or a handler of its own; calls are counted per route
+public class StubShareItServer {
+    private static final String HEALTH_PATH = "/actuator/health";
+    //Shared by the test classes whose gateway contexts are cached together, never stopped
+    private static StubShareItServer shared;
+
+    private final HttpServer http;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    private StubShareItServer() throws IOException {
+        http = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        http.setExecutor(Executors.newCachedThreadPool());
+        http.createContext("/", this::dispatch);
+        http.start();
+        reset();
+    }
+
+    public static StubShareItServer start() {
+        try {
+            return new StubShareItServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static synchronized StubShareItServer shared() {
+        if (shared == null) {
+            shared = start();
+        }
+        return shared;
+    }
+
+    public String url() {
+        return "http://localhost:" + http.getAddress().getPort();
+    }
+
+    public void stop() {
+        http.stop(0);
+    }
+
+    //Created on first use and kept until reset; calls before that are answered and counted by a shorter prefix,
+    //at least by the route of /
+    public Route route(String pathPrefix) {
+        return routes.computeIfAbsent(pathPrefix, prefix -> new Route());
+    }
+
+    //Every path answers 200 with {} again and no calls are counted. Health checks of the gateway keep a route
+    //of their own, so they are never counted with the calls of a test
+    public void reset() {
+        routes.clear();
+        route(HEALTH_PATH);
+    }
+
+    public static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String matched = "/";
+        for (String prefix : routes.keySet()) {
+            if (path.startsWith(prefix) && prefix.length() > matched.length()) {
+                matched = prefix;
+            }
+        }
+        route(matched).answer(exchange);
+    }
+
+    public static class Route {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile int status = 200;
+        private volatile String body = "{}";
+        private volatile Duration latency = Duration.ZERO;
+        private volatile Handler handler;
+        private volatile Headers lastHeaders;
+
+        public Route status(int status) {
+            this.status = status;
+            return this;
+        }
+
+        public Route body(String body) {
+            this.body = body;
+            return this;
+        }
+
+        //Waited before the answer, after the headers are recorded
+        public Route latency(Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        //Answers instead of the status and the body
+        public Route handler(Handler handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        public int calls() {
+            return calls.get();
+        }
+
+        public Headers lastHeaders() {
+            return lastHeaders;
+        }
+
+        private void answer(HttpExchange exchange) throws IOException {
+            int call = calls.incrementAndGet();
+            lastHeaders = exchange.getRequestHeaders();
+            sleep(latency);
+            Handler routeHandler = handler;
+            if (routeHandler != null) {
+                routeHandler.handle(exchange, call);
+            } else {
+                respond(exchange, status, body);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Handler {
+        //call is the number of the call of the route, from 1
+        void handle(HttpExchange exchange, int call) throws IOException;
+    }
+
+    public static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item;
+
+import com.sun.net.httpserver.Headers;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.client.StubServerTest;
+import ru.practicum.shareit.client.StubShareItServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemImportProxyTest extends StubServerTest {
+    private static final String RESULT = "{\"imported\":20000,\"errors\":[]}";
+    private static final String CSV = "name,description,available\nДрель,Ударная,true\n";
+
+    //Body of the last import the server received
+    private volatile byte[] receivedBody;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @BeforeEach
+    void beforeEach() {
+        stub.route("/items/import").handler((exchange, call) -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                receivedBody = in.readAllBytes();
+            }
+            StubShareItServer.respond(exchange, 200, RESULT);
+        });
+    }
+
+    @Test
+    void importBodyIsStreamedToServer() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            ndjson.append("{\"name\":\"Дрель ").append(i).append("\",\"description\":\"Ударная\",\"available\":true}\n");
+        }
+        byte[] body = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+
+        HttpResponse<String> response = httpClient.send(importRequest("application/x-ndjson",
+                        HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(body))),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(RESULT, response.body());
+        assertArrayEquals(body, receivedBody);
+        Headers received = stub.route("/items/import").lastHeaders();
+        assertEquals("application/x-ndjson", received.getFirst("Content-Type"));
+        assertEquals("7", received.getFirst("X-Sharer-User-Id"));
+        //Sent on without being buffered to learn its length
+        assertEquals("chunked", received.getFirst("Transfer-Encoding"));
+    }
+
+    //The server answers only after the import timeout
+    @Test
+    void slowImportTimesOut() throws Exception {
+        stub.route("/items/import").latency(Duration.ofSeconds(8));
+
+        HttpResponse<String> response = httpClient.send(importRequest("text/csv",
+                HttpRequest.BodyPublishers.ofString(CSV)), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(504, response.statusCode());
+    }
+
+    @Test
+    void importHoldsPermitOfItsOwnBulkhead() throws Exception {
+        stub.route("/items/import").latency(Duration.ofSeconds(1));
+
+        CompletableFuture<HttpResponse<String>> response = httpClient.sendAsync(importRequest("text/csv",
+                HttpRequest.BodyPublishers.ofString(CSV)), HttpResponse.BodyHandlers.ofString());
+        while (bulkheadRegistry.bulkhead("items-import").getMetrics().getAvailableConcurrentCalls() == 5) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(4, bulkheadRegistry.bulkhead("items-import").getMetrics().getAvailableConcurrentCalls());
+        assertEquals(25, bulkheadRegistry.bulkhead("items").getMetrics().getAvailableConcurrentCalls());
+        assertEquals(200, response.get().statusCode());
+    }
+
+    @Test
+    void unsupportedBodyIsRejected() throws Exception {
+        HttpResponse<String> response = httpClient.send(importRequest("application/xml",
+                HttpRequest.BodyPublishers.ofString("<items/>")), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+
+    private HttpRequest importRequest(String contentType, HttpRequest.BodyPublisher body) {
+        return HttpRequest.newBuilder(uri("/items/import"))
+                .header("X-Sharer-User-Id", "7")
+                .header("Content-Type", contentType)
+                .POST(body)
+                .build();
+    }
+}
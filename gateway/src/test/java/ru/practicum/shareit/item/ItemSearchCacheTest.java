@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchCacheTest {
+    private final AtomicInteger serverCalls = new AtomicInteger();
+    private final Supplier<Mono<ResponseEntity<Object>>> server = () -> Mono.fromSupplier(() ->
+            new ResponseEntity<>(("[" + serverCalls.incrementAndGet() + "]").getBytes(StandardCharsets.UTF_8),
+                    HttpStatus.OK));
+
+    private MeterRegistry meterRegistry;
+    private ItemSearchCacheProperties properties;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ItemSearchCacheProperties();
+    }
+
+    @Test
+    void repeatedSearchesAreServedFromCache() {
+        ItemSearchCache cache = new ItemSearchCache(properties, meterRegistry);
+
+        assertEquals("[1]", body(cache.get("Drill", 0, 10, false, server)));
+        assertEquals("[1]", body(cache.get("dRILL", 0, 10, false, server)));
+        assertEquals("[1]", body(cache.get("drill", 7, 10, false, server)));
+        assertEquals("[2]", body(cache.get("drill", 10, 10, false, server)));
+        assertEquals("[3]", body(cache.get("drill", 0, 20, false, server)));
+        assertEquals("[4]", body(cache.get("saw", 0, 10, false, server)));
+
+        assertEquals(4, serverCalls.get());
+        assertEquals(2.0 / 6, meterRegistry.get("cache.hit.ratio").tag("cache", "item-search").gauge().value(), 0.01);
+    }
+
+    @Test
+    void bypassGoesToServerAndRefreshesEntry() {
+        ItemSearchCache cache = new ItemSearchCache(properties, meterRegistry);
+
+        assertEquals("[1]", body(cache.get("drill", 0, 10, false, server)));
+        assertEquals("[2]", body(cache.get("drill", 0, 10, true, server)));
+        assertEquals("[2]", body(cache.get("drill", 0, 10, false, server)));
+    }
+
+    @Test
+    void errorsAreNotCached() {
+        ItemSearchCache cache = new ItemSearchCache(properties, meterRegistry);
+        Supplier<Mono<ResponseEntity<Object>>> failing = () -> Mono.fromSupplier(() -> {
+            serverCalls.incrementAndGet();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        });
+
+        cache.get("drill", 0, 10, false, failing).block();
+        assertEquals("[2]", body(cache.get("drill", 0, 10, false, server)));
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws InterruptedException {
+        properties.setTtl(Duration.ofMillis(100));
+        ItemSearchCache cache = new ItemSearchCache(properties, meterRegistry);
+
+        assertEquals("[1]", body(cache.get("drill", 0, 10, false, server)));
+        Thread.sleep(200);
+        assertEquals("[2]", body(cache.get("drill", 0, 10, false, server)));
+    }
+
+    @Test
+    void disabledCacheAlwaysAsksServer() {
+        properties.setEnabled(false);
+        ItemSearchCache cache = new ItemSearchCache(properties, meterRegistry);
+
+        cache.get("drill", 0, 10, false, server).block();
+        cache.get("drill", 0, 10, false, server).block();
+        assertEquals(2, serverCalls.get());
+    }
+
+    private static String body(Mono<ResponseEntity<Object>> response) {
+        return new String((byte[]) response.block().getBody(), StandardCharsets.UTF_8);
+    }
+}
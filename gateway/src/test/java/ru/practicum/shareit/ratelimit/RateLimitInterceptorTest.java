@@ -0,0 +1,132 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.ErrorHandler;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RateLimitInterceptorTest {
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private MeterRegistry meterRegistry;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void beforeEach() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getDefaults().setCapacity(2);
+        properties.getDefaults().setRefillPerSecond(0.4);
+        RateLimitProperties.Limit search = new RateLimitProperties.Limit();
+        search.setPaths(List.of("/items/search"));
+        search.setCapacity(1);
+        search.setRefillPerSecond(1);
+        properties.getGroups().put("search", search);
+        RateLimitProperties.Limit bookings = new RateLimitProperties.Limit();
+        bookings.setPaths(List.of("/bookings", "/bookings/owner"));
+        bookings.setCapacity(1);
+        properties.getGroups().put("bookings", bookings);
+
+        meterRegistry = new SimpleMeterRegistry();
+        mvc = MockMvcBuilders.standaloneSetup(new StubController())
+                .addInterceptors(new RateLimitInterceptor(properties, meterRegistry, nanos::get))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+    }
+
+    @Test
+    void exhaustedBucketAnswers429WithRetryAfter() throws Exception {
+        mvc.perform(get("/users/1").header(HEADER_USER_ID, 1)).andExpect(status().isOk());
+        mvc.perform(get("/users/1").header(HEADER_USER_ID, 1)).andExpect(status().isOk());
+        //Next token in 2.5 s, rounded up to whole seconds
+        mvc.perform(get("/users/1").header(HEADER_USER_ID, 1))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(2000));
+        mvc.perform(get("/users/1").header(HEADER_USER_ID, 1))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        mvc.perform(get("/users/1").header(HEADER_USER_ID, 1)).andExpect(status().isOk());
+
+        assertEquals(2, meterRegistry.get("gateway.rate.limit.rejected").tag("group", "default").counter().count());
+    }
+
+    @Test
+    void groupsHaveTheirOwnLimits() throws Exception {
+        mvc.perform(get("/items/search").header(HEADER_USER_ID, 1)).andExpect(status().isOk());
+        mvc.perform(get("/items/search").header(HEADER_USER_ID, 1))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+        //Every path of a group shares its bucket
+        mvc.perform(get("/bookings").header(HEADER_USER_ID, 1)).andExpect(status().isOk());
+        mvc.perform(get("/bookings/owner").header(HEADER_USER_ID, 1)).andExpect(status().isTooManyRequests());
+        //Paths outside of all groups fall back to rate-limit.defaults
+        mvc.perform(get("/users/1").header(HEADER_USER_ID, 1)).andExpect(status().isOk());
+        mvc.perform(get("/items/1").header(HEADER_USER_ID, 1)).andExpect(status().isOk());
+        mvc.perform(get("/items/1").header(HEADER_USER_ID, 1)).andExpect(status().isTooManyRequests());
+
+        assertEquals(1, meterRegistry.get("gateway.rate.limit.rejected").tag("group", "search").counter().count());
+        assertEquals(1, meterRegistry.get("gateway.rate.limit.rejected").tag("group", "bookings").counter().count());
+        assertEquals(1, meterRegistry.get("gateway.rate.limit.rejected").tag("group", "default").counter().count());
+    }
+
+    @Test
+    void usersHaveTheirOwnBuckets() throws Exception {
+        mvc.perform(get("/items/search").header(HEADER_USER_ID, 1)).andExpect(status().isOk());
+        mvc.perform(get("/items/search").header(HEADER_USER_ID, 1)).andExpect(status().isTooManyRequests());
+        mvc.perform(get("/items/search").header(HEADER_USER_ID, 2)).andExpect(status().isOk());
+        //Anonymous requests are keyed on their address
+        mvc.perform(get("/items/search")).andExpect(status().isOk());
+        mvc.perform(get("/items/search").with(request -> {
+            request.setRemoteAddr("10.0.0.2");
+            return request;
+        })).andExpect(status().isOk());
+        mvc.perform(get("/items/search")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void asyncDispatchIsNotCountedAgain() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MvcResult result = mvc.perform(get("/users/async").header(HEADER_USER_ID, 1))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        }
+        mvc.perform(get("/users/async").header(HEADER_USER_ID, 1)).andExpect(status().isTooManyRequests());
+    }
+
+    @RestController
+    static class StubController {
+
+        @GetMapping({"/users/1", "/items/1", "/items/search", "/bookings", "/bookings/owner"})
+        public String get() {
+            return "{}";
+        }
+
+        //Completed on a second, async dispatch like the responses of the gateway's clients
+        @GetMapping("/users/async")
+        public Mono<String> getAsync() {
+            return Mono.just("{}");
+        }
+    }
+}
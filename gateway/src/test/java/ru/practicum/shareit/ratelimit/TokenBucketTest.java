@@ -0,0 +1,56 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(SECOND, bucket.tryConsume(0));
+        //A rejected request takes no token
+        assertEquals(SECOND, bucket.tryConsume(0));
+    }
+
+    @Test
+    void tokensRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertEquals(SECOND / 4, bucket.tryConsume(SECOND * 3 / 4));
+        assertEquals(0, bucket.tryConsume(SECOND));
+        assertEquals(SECOND, bucket.tryConsume(SECOND));
+        assertEquals(0, bucket.tryConsume(SECOND * 3));
+        assertEquals(0, bucket.tryConsume(SECOND * 3));
+        assertEquals(SECOND, bucket.tryConsume(SECOND * 3));
+    }
+
+    @Test
+    void idleBucketHoldsNoMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+
+        assertEquals(0, bucket.tryConsume(SECOND * 100));
+        assertEquals(0, bucket.tryConsume(SECOND * 100));
+        assertEquals(SECOND, bucket.tryConsume(SECOND * 100));
+    }
+
+    @Test
+    void waitOfSlowRefill() {
+        TokenBucket bucket = new TokenBucket(1, 0.4, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(SECOND * 5 / 2, bucket.tryConsume(0));
+        assertEquals(SECOND / 2, bucket.tryConsume(SECOND * 2));
+        assertEquals(0, bucket.tryConsume(SECOND * 5 / 2));
+    }
+}
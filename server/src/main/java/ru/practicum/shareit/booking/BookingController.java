@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,6 +12,9 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -23,6 +27,7 @@ import java.util.List;
 public class BookingController {
 
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
 
     private final BookingService bookingService;
 
@@ -39,6 +44,13 @@ public class BookingController {
         return bookingService.approve(userId, bookingId, isApproved);
     }
 
+    @PatchMapping
+    public List<BookingApprovalResultDto> approveAll(@RequestHeader(HEADER_USER_ID) long userId,
+                                                     @RequestParam("approved") boolean isApproved,
+                                                     @RequestBody BookingApprovalDto approval) {
+        return bookingService.approveAll(userId, approval, isApproved);
+    }
+
     @GetMapping("{bookingId}")
     public BookingResponseDto getById(@RequestHeader(HEADER_USER_ID) long userId,
                                       @PathVariable long bookingId) {
@@ -46,26 +58,48 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingResponseDto> getByUser(@RequestHeader(HEADER_USER_ID) long userId,
-                                              @RequestParam(value = "state", defaultValue = "ALL") String state,
-                                              @RequestParam(name = "from", defaultValue = "0")
-                                              Integer from,
-                                              @RequestParam(name = "size", defaultValue = "10")
-                                              Integer size) {
-        int page = from / size;
+    public ResponseEntity<List<BookingResponseDto>> getByUser(@RequestHeader(HEADER_USER_ID) long userId,
+                                                              @RequestParam(value = "state", defaultValue = "ALL")
+                                                              String state,
+                                                              @RequestParam(name = "from", defaultValue = "0")
+                                                              Integer from,
+                                                              @RequestParam(name = "size", defaultValue = "10")
+                                                              Integer size,
+                                                              @RequestParam(name = "cursor", required = false)
+                                                              String cursor) {
+        if (cursor == null) {
+            int page = from / size;
 
-        return bookingService.getByUser(userId, state, PageRequest.of(page, size));
+            return ResponseEntity.ok(bookingService.getByUser(userId, state, PageRequest.of(page, size)));
+        }
+        return withNextCursor(bookingService.getByUser(userId, state, BookingCursor.decode(cursor), size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getByOwner(@RequestHeader(HEADER_USER_ID) long userId,
-                                               @RequestParam(value = "state", defaultValue = "ALL") String state,
-                                               @RequestParam(name = "from", defaultValue = "0")
-                                               Integer from,
-                                               @RequestParam(name = "size", defaultValue = "10")
-                                               Integer size) {
-        int page = from / size;
+    public ResponseEntity<List<BookingResponseDto>> getByOwner(@RequestHeader(HEADER_USER_ID) long userId,
+                                                               @RequestParam(value = "state", defaultValue = "ALL")
+                                                               String state,
+                                                               @RequestParam(name = "from", defaultValue = "0")
+                                                               Integer from,
+                                                               @RequestParam(name = "size", defaultValue = "10")
+                                                               Integer size,
+                                                               @RequestParam(name = "cursor", required = false)
+                                                               String cursor) {
+        if (cursor == null) {
+            int page = from / size;
+
+            return ResponseEntity.ok(bookingService.getByOwner(userId, state, PageRequest.of(page, size)));
+        }
+        return withNextCursor(bookingService.getByOwner(userId, state, BookingCursor.decode(cursor), size), size);
+    }
 
-        return bookingService.getByOwner(userId, state, PageRequest.of(page, size));
+    //A full page may have a continuation: hand out the cursor of its last booking
+    private ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        return ResponseEntity.ok()
+                .header(HEADER_NEXT_CURSOR, BookingCursor.of(bookings.get(bookings.size() - 1)).encode())
+                .body(bookings);
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Bookings to approve or reject at once: the listed ids, or without them the waiting bookings of the owner's
+//items, optionally of one item and starting within [startFrom, startTo). The list and the filter are exclusive
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingApprovalDto {
+
+    private List<Long> bookingIds;
+    private Long itemId;
+    private LocalDateTime startFrom;
+    private LocalDateTime startTo;
+
+}
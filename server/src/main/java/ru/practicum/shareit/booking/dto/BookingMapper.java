@@ -42,4 +42,14 @@ public class BookingMapper {
                 booking.getBooker().getId()
         );
     }
+
+    public static BookingItemDto toBookingItemDto(BookingShortDto booking) {
+        if (isNull(booking)) {
+            return null;
+        }
+        return new BookingItemDto(
+                booking.getId(),
+                booking.getBookerId()
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookingNearestDto extends BookingShortDto {
+    String LAST = "LAST";
+    String NEXT = "NEXT";
+
+    String getKind();
+}
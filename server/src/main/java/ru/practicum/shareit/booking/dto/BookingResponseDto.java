@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -26,4 +27,23 @@ public class BookingResponseDto {
     private User booker;
 
     private BookingStatus status;
+
+    //Row of BookingRepository.BOOKING_RESPONSE
+    public BookingResponseDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                              Long ownerId, String ownerName, String ownerEmail,
+                              Long requestId, String requestDescription, LocalDateTime requestCreated,
+                              Long requesterId, String requesterName, String requesterEmail,
+                              Long bookerId, String bookerName, String bookerEmail) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.status = status;
+        User requester = requesterId == null ? null : new User(requesterId, requesterName, requesterEmail);
+        ItemRequest request = requestId == null ? null : new ItemRequest(requestId, requestDescription, requester,
+                requestCreated);
+        this.item = new Item(itemId, itemName, itemDescription, itemAvailable,
+                new User(ownerId, ownerName, ownerEmail), request);
+        this.booker = new User(bookerId, bookerName, bookerEmail);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookingShortDto {
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+//What the approval checks need of a booking
+@Data
+@AllArgsConstructor
+public class BookingStatusDto {
+
+    private Long id;
+    private BookingStatus status;
+    private Long itemId;
+    private Long ownerId;
+
+}
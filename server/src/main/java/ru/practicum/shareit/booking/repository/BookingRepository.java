@@ -1,74 +1,256 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingNearestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingStatusDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
+import javax.persistence.LockModeType;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    //Flat row of everything BookingResponseDto serializes, without loading entities
+    String BOOKING_RESPONSE = "select new ru.practicum.shareit.booking.dto.BookingResponseDto(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, " +
+            "o.id, o.name, o.email, r.id, r.description, r.created, rq.id, rq.name, rq.email, " +
+            "u.id, u.name, u.email) " +
+            "from Booking b join b.item i join i.owner o join b.booker u " +
+            "left join i.request r left join r.requester rq ";
+
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
+
+    @Query(BOOKING_RESPONSE + "where b.id = ?1")
+    Optional<BookingResponseDto> findResponseById(long id);
+
+    //Status of a waiting booking changed by the owner of its item in one statement: 0 when the booking
+    //is not waiting any more, belongs to another owner or does not exist
+    @Modifying
+    @Query("update Booking b set b.status = ?3 where b.id = ?1 " +
+            "and b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int updateStatusOfWaiting(long id, long ownerId, BookingStatus status);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingStatusDto(b.id, b.status, i.id, i.owner.id) " +
+            "from Booking b join b.item i where b.id in ?1")
+    List<BookingStatusDto> findStatusesByIdIn(Collection<Long> ids);
+
+    //Same conditions as updateStatusOfWaiting for many bookings in one statement
+    @Modifying
+    @Query("update Booking b set b.status = ?3 where b.id in ?1 " +
+            "and b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int updateStatusOfWaitingIn(Collection<Long> ids, long ownerId, BookingStatus status);
+
+    //Row locks until the end of the transaction on the waiting bookings of the owner among the ids: exactly they
+    //are changed by updateStatusOfWaitingIn next, a concurrent call waits for the locks and then skips them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id from Booking b where b.id in ?1 " +
+            "and b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    List<Long> findAndLockWaitingIdsIn(Collection<Long> ids, long ownerId);
+
+    //Ids of waiting or approved bookings of the item that overlap the period from start to end.
+    //Statuses are literals, so PostgreSQL can use the partial index of active bookings
+    @Query("select b.id from Booking b where b.item.id = ?1 and b.start < ?3 and b.end > ?2 and b.status in (" +
+            "ru.practicum.shareit.booking.model.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.model.BookingStatus.APPROVED)")
+    List<Long> findIdsOfActiveOverlapping(long itemId, LocalDateTime start, LocalDateTime end,
+                                          Pageable pageRequest);
+
     //All by Booker ID
-    List<Booking> findAllByBookerIdOrderByStartDesc(long userId, Pageable pageRequest);
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 order by b.start desc")
+    List<BookingResponseDto> findAllByBookerIdOrderByStartDesc(long userId, Pageable pageRequest);
 
     //Current by Booker ID
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(long userId,
-                                                                                 LocalDateTime nowStart,
-                                                                                 LocalDateTime nowEnd,
-                                                                                 Pageable pageRequest);
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and " +
+            "b.start < ?2 and b.end > ?3 order by b.start desc")
+    List<BookingResponseDto> findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(long userId,
+                                                                                            LocalDateTime nowStart,
+                                                                                            LocalDateTime nowEnd,
+                                                                                            Pageable pageRequest);
 
     //Past by Booker ID
-    List<Booking> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(long userId, LocalDateTime now, Pageable pageRequest);
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and " +
+            "b.end < ?2 order by b.start desc")
+    List<BookingResponseDto> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(long userId,
+                                                                             LocalDateTime now,
+                                                                             Pageable pageRequest);
 
     //FUTURE by Booker ID
-    List<Booking> findAllByBookerIdAndStartIsAfterOrderByStartDesc(long userId,
-                                                                   LocalDateTime now,
-                                                                   Pageable pageRequest);
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and " +
+            "b.start > ?2 order by b.start desc")
+    List<BookingResponseDto> findAllByBookerIdAndStartIsAfterOrderByStartDesc(long userId,
+                                                                              LocalDateTime now,
+                                                                              Pageable pageRequest);
 
     //Status by Booker ID
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(long userId, BookingStatus status, Pageable pageRequest);
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and " +
+            "b.status = ?2 order by b.start desc")
+    List<BookingResponseDto> findAllByBookerIdAndStatusOrderByStartDesc(long userId,
+                                                                         BookingStatus status,
+                                                                         Pageable pageRequest);
 
     //All by item owner ID
-    @Query("select b from Booking b where b.item.owner.id = ?1 order by b.start desc")
-    List<Booking> findAllByItemsOwnerId(long userId, Pageable pageRequest);
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) order by b.start desc")
+    List<BookingResponseDto> findAllByItemsOwnerId(long userId, Pageable pageRequest);
 
     //Current by item owner ID
-    @Query("select b from Booking b where b.item.owner.id = ?1 and " +
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and " +
             "b.start <= ?2 and b.end >= ?3 order by b.start desc")
-    List<Booking> findAllCurrentByItemsOwnerId(long userId,
-                                               LocalDateTime nowStart,
-                                               LocalDateTime nowEnd,
-                                               Pageable pageRequest);
+    List<BookingResponseDto> findAllCurrentByItemsOwnerId(long userId,
+                                                          LocalDateTime nowStart,
+                                                          LocalDateTime nowEnd,
+                                                          Pageable pageRequest);
 
     //Past by item owner ID
-    @Query("select b from Booking b where b.item.owner.id = ?1 and " +
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and " +
             "b.end <= ?2 order by b.start desc")
-    List<Booking> findAllPastByItemsOwnerId(long userId, LocalDateTime now, Pageable pageRequest);
+    List<BookingResponseDto> findAllPastByItemsOwnerId(long userId, LocalDateTime now, Pageable pageRequest);
 
     //FUTURE by item owner ID
-    @Query("select b from Booking b where b.item.owner.id = ?1 and " +
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and " +
             "b.start >= ?2 order by b.start desc")
-    List<Booking> findAllFutureByItemsOwnerId(long userId, LocalDateTime now, Pageable pageRequest);
+    List<BookingResponseDto> findAllFutureByItemsOwnerId(long userId, LocalDateTime now, Pageable pageRequest);
 
     //Status by item owner ID
-    @Query("select b from Booking b where b.item.owner.id = ?1 and " +
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and " +
             "b.status = ?2 order by b.start desc")
-    List<Booking> findAllStatusByItemsOwnerId(long userId, BookingStatus status, Pageable pageRequest);
+    List<BookingResponseDto> findAllStatusByItemsOwnerId(long userId, BookingStatus status, Pageable pageRequest);
+
+    //All by Booker ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByBookerIdAfter(long userId, LocalDateTime start, long id, Pageable pageRequest);
+
+    //Current by Booker ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and b.start < ?4 and b.end > ?5 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllCurrentByBookerIdAfter(long userId,
+                                                           LocalDateTime start,
+                                                           long id,
+                                                           LocalDateTime nowStart,
+                                                           LocalDateTime nowEnd,
+                                                           Pageable pageRequest);
+
+    //Past by Booker ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and b.end < ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllPastByBookerIdAfter(long userId,
+                                                        LocalDateTime start,
+                                                        long id,
+                                                        LocalDateTime now,
+                                                        Pageable pageRequest);
+
+    //FUTURE by Booker ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and b.start > ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllFutureByBookerIdAfter(long userId,
+                                                          LocalDateTime start,
+                                                          long id,
+                                                          LocalDateTime now,
+                                                          Pageable pageRequest);
+
+    //Status by Booker ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.booker.id = ?1 and b.status = ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllStatusByBookerIdAfter(long userId,
+                                                          LocalDateTime start,
+                                                          long id,
+                                                          BookingStatus status,
+                                                          Pageable pageRequest);
+
+    //All by item owner ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllByItemsOwnerIdAfter(long userId,
+                                                        LocalDateTime start,
+                                                        long id,
+                                                        Pageable pageRequest);
+
+    //Current by item owner ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and b.start <= ?4 and b.end >= ?5 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllCurrentByItemsOwnerIdAfter(long userId,
+                                                               LocalDateTime start,
+                                                               long id,
+                                                               LocalDateTime nowStart,
+                                                               LocalDateTime nowEnd,
+                                                               Pageable pageRequest);
+
+    //Past by item owner ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and b.end <= ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllPastByItemsOwnerIdAfter(long userId,
+                                                            LocalDateTime start,
+                                                            long id,
+                                                            LocalDateTime now,
+                                                            Pageable pageRequest);
+
+    //FUTURE by item owner ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and b.start >= ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllFutureByItemsOwnerIdAfter(long userId,
+                                                              LocalDateTime start,
+                                                              long id,
+                                                              LocalDateTime now,
+                                                              Pageable pageRequest);
+
+    //Status by item owner ID after cursor
+    @Query(BOOKING_RESPONSE + "where b.item.id in " +
+            "(select oi.id from Item oi where oi.owner.id = ?1) and b.status = ?4 and " +
+            "(b.start < ?2 or (b.start = ?2 and b.id < ?3)) order by b.start desc, b.id desc")
+    List<BookingResponseDto> findAllStatusByItemsOwnerIdAfter(long userId,
+                                                              LocalDateTime start,
+                                                              long id,
+                                                              BookingStatus status,
+                                                              Pageable pageRequest);
 
-    @Query("select b from Booking b where b.item.id = ?1")
-    List<Booking> findAllByItemsId(long itemId);
+    //Last and next booking of the item in a single round-trip
+    @Query(value = "(select b.booking_id as \"id\", b.item_id as \"itemId\", b.booker_id as \"bookerId\", " +
+            "'LAST' as \"kind\" from bookings b where b.item_id = ?1 and b.start_date <= ?2 " +
+            "order by b.end_date desc limit 1) " +
+            "union all " +
+            "(select b.booking_id, b.item_id, b.booker_id, 'NEXT' from bookings b " +
+            "where b.item_id = ?1 and b.start_date >= ?2 order by b.start_date limit 1)",
+            nativeQuery = true)
+    List<BookingNearestDto> findLastAndNextBookingsByItemId(long itemId, LocalDateTime now);
 
-    @Query("select b from Booking b where b.item.id = ?1 and " +
-            "b.item.owner.id = ?2 and b.start <= ?3 order by b.end desc ")
-    List<Booking> findLastBookingByItemId(long itemId, long userId, LocalDateTime now);
+    //Last booking for each of the items
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId from Booking b " +
+            "where b.item.id in ?1 and b.start <= ?2 and b.end = (select max(lb.end) from Booking lb " +
+            "where lb.item.id = b.item.id and lb.start <= ?2)")
+    List<BookingShortDto> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
 
-    @Query("select b from Booking b where b.item.id = ?1 and " +
-            "b.item.owner.id = ?2 and b.start >= ?3 order by b.start asc")
-    List<Booking> findNextBookingByItemId(long itemId, long userId, LocalDateTime now);
+    //Next booking for each of the items
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId from Booking b " +
+            "where b.item.id in ?1 and b.start = (select min(nb.start) from Booking nb " +
+            "where nb.item.id = b.item.id and nb.start >= ?2)")
+    List<BookingShortDto> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
 
     @Query("select (count(b) > 0) from Booking b where b.item.id = ?1 and b.booker.id = ?2 and b.end < ?3")
     boolean existsByItemIdAndBookerIdAndEndBefore(long itemId, long userId, LocalDateTime now);
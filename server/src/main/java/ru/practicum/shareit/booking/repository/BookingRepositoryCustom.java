@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Queries whose conditions depend on the arguments given, built at run time
+public interface BookingRepositoryCustom {
+    //Waiting bookings of the owner's items, optionally of one item and starting within [startFrom, startTo)
+    List<Long> findWaitingIdsByOwner(long ownerId,
+                                     @Nullable Long itemId,
+                                     @Nullable LocalDateTime startFrom,
+                                     @Nullable LocalDateTime startTo,
+                                     Pageable pageRequest);
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Only the filters given become conditions: a null bound to "? is null" has no type PostgreSQL can infer
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findWaitingIdsByOwner(long ownerId,
+                                            @Nullable Long itemId,
+                                            @Nullable LocalDateTime startFrom,
+                                            @Nullable LocalDateTime startTo,
+                                            Pageable pageRequest) {
+        StringBuilder jpql = new StringBuilder("select b.id from Booking b where b.status = :status " +
+                "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId");
+        if (itemId != null) {
+            jpql.append(" and i.id = :itemId");
+        }
+        jpql.append(')');
+        if (startFrom != null) {
+            jpql.append(" and b.start >= :startFrom");
+        }
+        if (startTo != null) {
+            jpql.append(" and b.start < :startTo");
+        }
+        jpql.append(" order by b.id");
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class)
+                .setParameter("status", BookingStatus.WAITING)
+                .setParameter("ownerId", ownerId);
+        if (itemId != null) {
+            query.setParameter("itemId", itemId);
+        }
+        if (startFrom != null) {
+            query.setParameter("startFrom", startFrom);
+        }
+        if (startTo != null) {
+            query.setParameter("startTo", startTo);
+        }
+        return query.setFirstResult((int) pageRequest.getOffset())
+                .setMaxResults(pageRequest.getPageSize())
+                .getResultList();
+    }
+}
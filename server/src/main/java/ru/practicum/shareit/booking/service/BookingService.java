@@ -2,6 +2,9 @@ package ru.practicum.shareit.booking.service;
 
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 
@@ -12,9 +15,15 @@ public interface BookingService {
 
     BookingResponseDto approve(long userId, long bookingId, boolean isApproved) throws ConstraintViolationException;
 
+    List<BookingApprovalResultDto> approveAll(long userId, BookingApprovalDto approval, boolean isApproved);
+
     BookingResponseDto getById(long userId, long bookingId);
 
     List<BookingResponseDto> getByUser(long userId, String state, Pageable pageRequest);
 
     List<BookingResponseDto> getByOwner(long ownerId, String state, Pageable pageRequest);
+
+    List<BookingResponseDto> getByUser(long userId, String state, BookingCursor cursor, int size);
+
+    List<BookingResponseDto> getByOwner(long ownerId, String state, BookingCursor cursor, int size);
 }
\ No newline at end of file
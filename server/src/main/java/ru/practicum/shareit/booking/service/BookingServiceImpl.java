@@ -2,13 +2,20 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.booking.dto.BookingStatusDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -21,12 +28,22 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    //Bookings changed by one batch approval; a filter matching more is applied again for the rest
+    private static final int MAX_APPROVAL_BATCH = 1000;
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
@@ -40,6 +57,8 @@ public class BookingServiceImpl implements BookingService {
         Item item = checkItem(bookingRequestDto.getItemId());
         checkItemOwner(userId, item);
         checkItemAvailable(item);
+        itemRepository.findAndLockById(item.getId());
+        checkItemIsFree(item, bookingRequestDto);
         return BookingMapper.toBookingResponseDto(bookingRepository.save(BookingMapper.toBooking(bookingRequestDto,
                 item, booker)));
     }
@@ -47,15 +66,69 @@ public class BookingServiceImpl implements BookingService {
     @Transactional
     @Override
     public BookingResponseDto approve(long userId, long bookingId, boolean isApproved) throws ConstraintViolationException {
-        Booking booking;
-        Item item;
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatusOfWaiting(bookingId, userId, status) == 0) {
+            throw approveFailure(userId, bookingId, isApproved);
+        }
+        return bookingRepository.findResponseById(bookingId).orElseThrow(() ->
+                new EntityNotFoundException(String.format("Бронирование с id = %s не найдено!", bookingId)));
+    }
+
+    //One update for the whole batch. Listed ids are checked like in approve with one read beforehand,
+    //ids found by the filter already meet the checks. Bookings that pass are locked before the update,
+    //the ones a concurrent call changed after the read are reported like in approve
+    @Transactional
+    @Override
+    public List<BookingApprovalResultDto> approveAll(long userId, BookingApprovalDto approval, boolean isApproved) {
         checkUserExist(userId);
-        booking = checkBooking(bookingId);
-        checkBookingStatus(booking, isApproved);
-        item = booking.getItem();
-        checkAccessForApprove(userId, item);
-        booking.setStatus(isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toBookingResponseDto(bookingRepository.save(booking));
+        if (approval.getBookingIds() != null && (approval.getItemId() != null || approval.getStartFrom() != null
+                || approval.getStartTo() != null)) {
+            throw new ValidationException("Список бронирований нельзя указывать вместе с фильтром!");
+        }
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Collection<Long> ids;
+        Map<Long, String> errors = new HashMap<>();
+        List<Long> allowed;
+        if (approval.getBookingIds() != null) {
+            ids = new LinkedHashSet<>(approval.getBookingIds());
+            Map<Long, BookingStatusDto> bookings = bookingRepository.findStatusesByIdIn(ids).stream()
+                    .collect(Collectors.toMap(BookingStatusDto::getId, Function.identity()));
+            allowed = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                String error = findApproveError(userId, id, bookings.get(id));
+                if (error != null) {
+                    errors.put(id, error);
+                } else {
+                    allowed.add(id);
+                }
+            }
+        } else {
+            allowed = bookingRepository.findWaitingIdsByOwner(userId, approval.getItemId(), approval.getStartFrom(),
+                    approval.getStartTo(), PageRequest.ofSize(MAX_APPROVAL_BATCH));
+            ids = allowed;
+        }
+        if (!allowed.isEmpty()) {
+            Set<Long> locked = new HashSet<>(bookingRepository.findAndLockWaitingIdsIn(allowed, userId));
+            if (!locked.isEmpty()) {
+                bookingRepository.updateStatusOfWaitingIn(locked, userId, status);
+            }
+            if (locked.size() < allowed.size()) {
+                List<Long> changed = allowed.stream()
+                        .filter(id -> !locked.contains(id))
+                        .collect(Collectors.toList());
+                Map<Long, BookingStatusDto> bookings = bookingRepository.findStatusesByIdIn(changed).stream()
+                        .collect(Collectors.toMap(BookingStatusDto::getId, Function.identity()));
+                for (Long id : changed) {
+                    String error = findApproveError(userId, id, bookings.get(id));
+                    errors.put(id, error != null ? error : String.format("Статус бронирования id=%d не изменен!", id));
+                }
+            }
+        }
+        return ids.stream()
+                .map(id -> errors.containsKey(id)
+                        ? new BookingApprovalResultDto(id, null, errors.get(id))
+                        : new BookingApprovalResultDto(id, status, null))
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
@@ -73,47 +146,24 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingResponseDto> getByUser(long userId, String stateIn, Pageable pageRequest) {
         checkUserExist(userId);
-        BookingState state;
-        try {
-            state = BookingState.valueOf(stateIn);
-        } catch (IllegalArgumentException e) {
-            throw new BookingStateException("Unknown state: " + stateIn);
-        }
+        BookingState state = toBookingState(stateIn);
         LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case CURRENT:
                 return bookingRepository
-                        .findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId, now, now, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                        .findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(userId, now, now, pageRequest);
             case PAST:
-                return bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(userId, now, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                return bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(userId, now, pageRequest);
             case FUTURE:
-                return bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(userId, now, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                return bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(userId, now, pageRequest);
             case WAITING:
                 return bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING,
-                                pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                        pageRequest);
             case REJECTED:
                 return bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED,
-                                pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                        pageRequest);
             default:
-                return bookingRepository.findAllByBookerIdOrderByStartDesc(userId, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                return bookingRepository.findAllByBookerIdOrderByStartDesc(userId, pageRequest);
         }
     }
 
@@ -121,44 +171,135 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingResponseDto> getByOwner(long ownerId, String stateIn, Pageable pageRequest) {
         checkUserExist(ownerId);
-        BookingState state;
-        try {
-            state = BookingState.valueOf(stateIn);
-        } catch (IllegalArgumentException e) {
-            throw new BookingStateException("Unknown state: " + stateIn);
+        BookingState state = toBookingState(stateIn);
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case CURRENT:
+                return bookingRepository.findAllCurrentByItemsOwnerId(ownerId, now, now, pageRequest);
+            case PAST:
+                return bookingRepository.findAllPastByItemsOwnerId(ownerId, now, pageRequest);
+            case FUTURE:
+                return bookingRepository.findAllFutureByItemsOwnerId(ownerId, now, pageRequest);
+            case WAITING:
+                return bookingRepository.findAllStatusByItemsOwnerId(ownerId, BookingStatus.WAITING, pageRequest);
+            case REJECTED:
+                return bookingRepository.findAllStatusByItemsOwnerId(ownerId, BookingStatus.REJECTED, pageRequest);
+            default:
+                return bookingRepository.findAllByItemsOwnerId(ownerId, pageRequest);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingResponseDto> getByUser(long userId, String stateIn, BookingCursor cursor, int size) {
+        if (cursor == null) {
+            return getByUser(userId, stateIn, firstPage(size));
         }
+        checkUserExist(userId);
+        BookingState state = toBookingState(stateIn);
         LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = cursor.getStart();
+        long id = cursor.getId();
+        Pageable pageRequest = PageRequest.ofSize(size);
+        List<BookingResponseDto> bookings;
         switch (state) {
             case CURRENT:
-                return bookingRepository.findAllCurrentByItemsOwnerId(ownerId, now, now, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findAllCurrentByBookerIdAfter(userId, start, id, now, now, pageRequest);
+                break;
             case PAST:
-                return bookingRepository.findAllPastByItemsOwnerId(ownerId, now, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findAllPastByBookerIdAfter(userId, start, id, now, pageRequest);
+                break;
             case FUTURE:
-                return bookingRepository.findAllFutureByItemsOwnerId(ownerId, now, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findAllFutureByBookerIdAfter(userId, start, id, now, pageRequest);
+                break;
             case WAITING:
-                return bookingRepository.findAllStatusByItemsOwnerId(ownerId, BookingStatus.WAITING, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findAllStatusByBookerIdAfter(userId, start, id, BookingStatus.WAITING,
+                        pageRequest);
+                break;
             case REJECTED:
-                return bookingRepository.findAllStatusByItemsOwnerId(ownerId, BookingStatus.REJECTED, pageRequest)
-                        .stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findAllStatusByBookerIdAfter(userId, start, id, BookingStatus.REJECTED,
+                        pageRequest);
+                break;
             default:
-                return bookingRepository.findAllByItemsOwnerId(ownerId, pageRequest).stream()
-                        .map(BookingMapper::toBookingResponseDto)
-                        .collect(Collectors.toList());
+                bookings = bookingRepository.findAllByBookerIdAfter(userId, start, id, pageRequest);
+        }
+        return bookings;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingResponseDto> getByOwner(long ownerId, String stateIn, BookingCursor cursor, int size) {
+        if (cursor == null) {
+            return getByOwner(ownerId, stateIn, firstPage(size));
+        }
+        checkUserExist(ownerId);
+        BookingState state = toBookingState(stateIn);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = cursor.getStart();
+        long id = cursor.getId();
+        Pageable pageRequest = PageRequest.ofSize(size);
+        List<BookingResponseDto> bookings;
+        switch (state) {
+            case CURRENT:
+                bookings = bookingRepository.findAllCurrentByItemsOwnerIdAfter(ownerId, start, id, now, now,
+                        pageRequest);
+                break;
+            case PAST:
+                bookings = bookingRepository.findAllPastByItemsOwnerIdAfter(ownerId, start, id, now, pageRequest);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.findAllFutureByItemsOwnerIdAfter(ownerId, start, id, now, pageRequest);
+                break;
+            case WAITING:
+                bookings = bookingRepository.findAllStatusByItemsOwnerIdAfter(ownerId, start, id,
+                        BookingStatus.WAITING, pageRequest);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.findAllStatusByItemsOwnerIdAfter(ownerId, start, id,
+                        BookingStatus.REJECTED, pageRequest);
+                break;
+            default:
+                bookings = bookingRepository.findAllByItemsOwnerIdAfter(ownerId, start, id, pageRequest);
+        }
+        return bookings;
+    }
+
+    //First page of a cursor listing: same order as the seek queries
+    private Pageable firstPage(int size) {
+        return PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "id"));
+    }
+
+    private BookingState toBookingState(String stateIn) {
+        try {
+            return BookingState.valueOf(stateIn);
+        } catch (IllegalArgumentException e) {
+            throw new BookingStateException("Unknown state: " + stateIn);
+        }
+    }
+
+    //Why the conditional update changed nothing, checked in the order the errors are reported in
+    //Same checks and messages as approveFailure, null when the booking can be approved
+    @Nullable
+    private static String findApproveError(long userId, long bookingId, @Nullable BookingStatusDto booking) {
+        if (booking == null) {
+            return String.format("Бронирование с id = %s не найдено!", bookingId);
+        }
+        if (booking.getStatus() != BookingStatus.WAITING) {
+            return String.format("Бронирование id=%d уже находится в статусе %S!", bookingId, booking.getStatus());
+        }
+        if (booking.getOwnerId() != userId) {
+            return String.format("Ошибка смены статуса запроса на бронирование! Пользователь id=%d не является " +
+                    "владельцем вещи id=%d!", userId, booking.getItemId());
         }
+        return null;
+    }
+
+    private RuntimeException approveFailure(long userId, long bookingId, boolean isApproved) {
+        checkUserExist(userId);
+        Booking booking = checkBooking(bookingId);
+        checkBookingStatus(booking, isApproved);
+        checkAccessForApprove(userId, booking.getItem());
+        return new BookingStateException(String.format("Статус бронирования id=%d не изменен!", bookingId));
     }
 
     private void checkBookingStatus(Booking booking, boolean isApproved) {
@@ -185,6 +326,15 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    //Any waiting or approved booking of the item overlapping the new one, found by one seek of the index of active
+    //bookings. The item is locked by the caller, so no other booking of it is added in between
+    private void checkItemIsFree(Item item, BookingRequestDto bookingRequestDto) {
+        if (!bookingRepository.findIdsOfActiveOverlapping(item.getId(), bookingRequestDto.getStart(),
+                bookingRequestDto.getEnd(), PageRequest.ofSize(1)).isEmpty()) {
+            throw new ValidationException(String.format("Вещь id=%d уже забронирована на эти даты!", item.getId()));
+        }
+    }
+
     private void checkAccessForApprove(long userId, Item item) {
         if (item.getOwner().getId() != userId) {
             throw new EntityNotFoundException(String.format("Ошибка смены статуса запроса на бронирование! Пользователь" +
@@ -210,7 +360,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     public Item checkItem(long itemId) {
-        return itemRepository.findById(itemId).orElseThrow(() ->
+        return itemRepository.findWithOwnerAndRequestById(itemId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Вещь с id = %s не найдена!", itemId)));
     }
 
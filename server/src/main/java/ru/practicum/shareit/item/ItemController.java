@@ -2,6 +2,8 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,9 +15,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportFormat;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
@@ -27,6 +36,7 @@ public class ItemController {
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
 
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
     @PostMapping()
     public ItemDto add(@RequestHeader(HEADER_USER_ID) long userId,
@@ -34,6 +44,16 @@ public class ItemController {
         return itemService.add(userId, itemDto);
     }
 
+    //The body is streamed: rows are read and loaded while it is still arriving
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ItemImportFormat.CSV_VALUE})
+    public ItemImportResultDto importItems(@RequestHeader(HEADER_USER_ID) long userId,
+                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                           InputStream body) {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        return itemImportService.importItems(userId, ItemImportFormat.of(contentType),
+                new InputStreamReader(body, charset));
+    }
+
     @PatchMapping("{itemId}")
     public ItemDto update(@RequestHeader(HEADER_USER_ID) long userId,
                           @RequestBody ItemDto itemDto,
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dto;
+
+import org.springframework.http.MediaType;
+
+//Bodies of the item import: one JSON object per line, or CSV with a header row
+public enum ItemImportFormat {
+    NDJSON,
+    CSV;
+
+    public static final String CSV_VALUE = "text/csv";
+
+    public static ItemImportFormat of(MediaType contentType) {
+        return contentType.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE)) ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportResultDto {
+    private Long imported;
+    private Long rejected;
+    //Errors of the first rejected rows, at most ItemImportServiceImpl.MAX_ERRORS of them
+    private List<ItemImportErrorDto> errors;
+}
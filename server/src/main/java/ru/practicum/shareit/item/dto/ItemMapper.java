@@ -2,8 +2,7 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.experimental.UtilityClass;
 import org.springframework.lang.Nullable;
-import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
@@ -33,15 +32,15 @@ public class ItemMapper {
         );
     }
 
-    public static ItemResponseDto toItemResponseDto(Item item, Booking lastBooking, Booking nextBooking,
+    public static ItemResponseDto toItemResponseDto(Item item, BookingItemDto lastBooking, BookingItemDto nextBooking,
                                                     List<CommentDto> comments) {
         return new ItemResponseDto(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
-                lastBooking != null ? BookingMapper.toBookingItemDto(lastBooking) : null,
-                nextBooking != null ? BookingMapper.toBookingItemDto(nextBooking) : null,
+                lastBooking,
+                nextBooking,
                 comments);
     }
 }
\ No newline at end of file
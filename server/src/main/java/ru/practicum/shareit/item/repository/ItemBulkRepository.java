@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+//Items inserted many at once past the persistence context: COPY on PostgreSQL, a JDBC batch on other databases.
+//Ids come in blocks from the sequence Hibernate uses, so they never collide with the ones it hands out
+@Repository
+@RequiredArgsConstructor
+public class ItemBulkRepository {
+    private static final String COLUMNS = "items (item_id, item_name, description, is_available, owner_id, request_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void insertAll(long ownerId, List<ItemDto> items) {
+        List<Long> ids = allocateIds(items.size());
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                copy(connection.unwrap(PGConnection.class), ownerId, items, ids);
+            } else {
+                insert(connection, ownerId, items, ids);
+            }
+            return null;
+        });
+    }
+
+    private List<Long> allocateIds(int count) {
+        int blocks = (count + Item.ID_ALLOCATION_SIZE - 1) / Item.ID_ALLOCATION_SIZE;
+        List<Long> starts = jdbcTemplate.queryForList(
+                "select nextval('" + Item.ID_SEQUENCE + "') from generate_series(1, ?)", Long.class, blocks);
+        List<Long> ids = new ArrayList<>(blocks * Item.ID_ALLOCATION_SIZE);
+        for (long start : starts) {
+            for (int i = 0; i < Item.ID_ALLOCATION_SIZE; i++) {
+                ids.add(start + i);
+            }
+        }
+        return ids;
+    }
+
+    private static void copy(PGConnection connection, long ownerId, List<ItemDto> items, List<Long> ids)
+            throws SQLException {
+        StringBuilder csv = new StringBuilder(items.size() * 128);
+        for (int i = 0; i < items.size(); i++) {
+            ItemDto item = items.get(i);
+            csv.append(ids.get(i)).append(',');
+            appendQuoted(csv, item.getName()).append(',');
+            appendQuoted(csv, item.getDescription()).append(',');
+            csv.append(item.getAvailable()).append(',').append(ownerId).append(',');
+            //An empty unquoted field is NULL
+            if (item.getRequestId() != null) {
+                csv.append(item.getRequestId());
+            }
+            csv.append('\n');
+        }
+        try {
+            connection.getCopyAPI().copyIn("COPY " + COLUMNS + " FROM STDIN (FORMAT csv)",
+                    new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void insert(Connection connection, long ownerId, List<ItemDto> items, List<Long> ids)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into " + COLUMNS + " values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < items.size(); i++) {
+                ItemDto item = items.get(i);
+                statement.setLong(1, ids.get(i));
+                statement.setString(2, item.getName());
+                statement.setString(3, item.getDescription());
+                statement.setBoolean(4, item.getAvailable());
+                statement.setLong(5, ownerId);
+                statement.setObject(6, item.getRequestId(), Types.BIGINT);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
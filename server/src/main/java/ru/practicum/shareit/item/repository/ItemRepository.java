@@ -1,16 +1,31 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    //Item with everything a booking response serializes
+    @EntityGraph(attributePaths = {"owner", "request.requester"})
+    Optional<Item> findWithOwnerAndRequestById(long itemId);
+
+    //Row lock until the end of the transaction: bookings of one item are created one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findAndLockById(long itemId);
+
     List<Item> findItemsByOwnerIdOrderById(long userId, Pageable pageRequest);
 
     @Query("select i from Item i " +
@@ -19,4 +34,12 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> searchItemsByText(String text, Pageable pageRequest);
 
     List<Item> findAllByRequestId(long id);
+
+    @Query("select i from Item i where i.request.id in ?1")
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    //Bulk delete also drops the cached items removed by ON DELETE CASCADE
+    @Modifying
+    @Query("delete from Item i where i.owner.id = ?1")
+    void deleteAllByOwnerId(long ownerId);
 }
\ No newline at end of file
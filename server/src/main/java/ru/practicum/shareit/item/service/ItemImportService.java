@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.dto.ItemImportFormat;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+
+import java.io.Reader;
+
+public interface ItemImportService {
+    ItemImportResultDto importItems(long userId, ItemImportFormat format, Reader body);
+}
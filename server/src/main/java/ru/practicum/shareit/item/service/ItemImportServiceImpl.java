@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportFormat;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.repository.ItemBulkRepository;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemImportServiceImpl implements ItemImportService {
+    //Rows loaded by one statement in one transaction
+    static final int CHUNK_SIZE = 1000;
+    //Column lengths of the items table: a longer value would fail its whole chunk
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_DESCRIPTION_LENGTH = 1000;
+    //Errors returned of the rejected rows, those of the first lines; the rest are only counted
+    static final int MAX_ERRORS = 100;
+
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemBulkRepository itemBulkRepository;
+    private final ObjectMapper objectMapper;
+
+    //Not one transaction: every chunk is committed on its own, so a long upload holds no locks, and rows
+    //of the chunks already loaded stay imported when a later one fails
+    @Override
+    public ItemImportResultDto importItems(long userId, ItemImportFormat format, Reader body) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(String.format("Пользователь с id = %d не найден!", userId));
+        }
+        ItemRowReader reader = ItemRowReader.of(format, body, objectMapper.readerFor(ItemDto.class));
+        Rejections errors = new Rejections();
+        List<ItemRowReader.ItemRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        long imported = 0;
+        try {
+            for (ItemRowReader.ItemRow row = reader.next(); row != null; row = reader.next()) {
+                String error = row.getError() != null ? row.getError() : findRowError(row.getItem());
+                if (error != null) {
+                    errors.add(row.getLine(), error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    imported += load(userId, chunk, errors);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        imported += load(userId, chunk, errors);
+        log.info("Импортировано вещей пользователя {}: {}, отклонено строк: {}", userId, imported, errors.count);
+        return new ItemImportResultDto(imported, errors.count, errors.firstLines());
+    }
+
+    @Nullable
+    private static String findRowError(ItemDto item) {
+        String error = ItemServiceImpl.findItemDtoError(item);
+        if (error == null && item.getName().length() > MAX_NAME_LENGTH) {
+            error = String.format("Название вещи длиннее %d символов!", MAX_NAME_LENGTH);
+        }
+        if (error == null && item.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            error = String.format("Описание вещи длиннее %d символов!", MAX_DESCRIPTION_LENGTH);
+        }
+        return error;
+    }
+
+    private int load(long userId, List<ItemRowReader.ItemRow> chunk, Rejections errors) {
+        Set<Long> requestIds = chunk.stream()
+                .map(row -> row.getItem().getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> foundRequestIds = requestIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(itemRequestRepository.findIdsByIdIn(requestIds));
+        List<ItemRowReader.ItemRow> rows = new ArrayList<>(chunk.size());
+        for (ItemRowReader.ItemRow row : chunk) {
+            Long requestId = row.getItem().getRequestId();
+            if (requestId != null && !foundRequestIds.contains(requestId)) {
+                errors.add(row.getLine(), String.format("Запрос с id = %d не найден!", requestId));
+            } else {
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            itemBulkRepository.insertAll(userId, rows.stream()
+                    .map(ItemRowReader.ItemRow::getItem)
+                    .collect(Collectors.toList()));
+            return rows.size();
+        } catch (DataAccessException e) {
+            log.warn("Не удалось сохранить {} импортируемых вещей пользователя {}: {}", rows.size(), userId,
+                    e.getMessage());
+            for (ItemRowReader.ItemRow row : rows) {
+                errors.add(row.getLine(), "Вещь не сохранена, повторите импорт строки!");
+            }
+            return 0;
+        }
+    }
+
+    //Rows of a chunk are rejected only when it is loaded, after rows of later lines,
+    //so the errors of the first lines are picked by a heap of at most MAX_ERRORS
+    private static class Rejections {
+        private final PriorityQueue<ItemImportErrorDto> lastFirst = new PriorityQueue<>(
+                Comparator.comparing(ItemImportErrorDto::getLine).reversed());
+        private long count;
+
+        void add(long line, String error) {
+            count++;
+            lastFirst.add(new ItemImportErrorDto(line, error));
+            if (lastFirst.size() > MAX_ERRORS) {
+                lastFirst.poll();
+            }
+        }
+
+        List<ItemImportErrorDto> firstLines() {
+            List<ItemImportErrorDto> errors = new ArrayList<>(lastFirst);
+            errors.sort(Comparator.comparing(ItemImportErrorDto::getLine));
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//Rows of an item import read one at a time, the body is never held in memory whole.
+//A row that cannot be read carries an error instead of an item
+abstract class ItemRowReader {
+    //Characters kept of one row, far above an item of the longest name and description.
+    //A longer row is read to its end without keeping it and rejected
+    static final int MAX_ROW_LENGTH = 16 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    ItemRowReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    static ItemRowReader of(ItemImportFormat format, Reader body, ObjectReader itemReader) {
+        return format == ItemImportFormat.CSV ? new Csv(body) : new Ndjson(body, itemReader);
+    }
+
+    //null after the last row
+    @Nullable
+    abstract ItemRow next() throws IOException;
+
+    int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ItemRow {
+        private long line;
+        private ItemDto item;
+        private String error;
+    }
+
+    private static class Ndjson extends ItemRowReader {
+        private final ObjectReader itemReader;
+        private final StringBuilder text = new StringBuilder();
+        private long line;
+        //The last line ended with \r, a \n right after it ends no other line
+        private boolean skipLineFeed;
+        private boolean tooLong;
+
+        Ndjson(Reader reader, ObjectReader itemReader) {
+            super(reader);
+            this.itemReader = itemReader;
+        }
+
+        @Override
+        ItemRow next() throws IOException {
+            while (readLine()) {
+                line++;
+                if (tooLong) {
+                    return new ItemRow(line, null, String.format("Строка длиннее %d символов!", MAX_ROW_LENGTH));
+                }
+                if (text.toString().isBlank()) {
+                    continue;
+                }
+                try {
+                    ItemDto item = itemReader.readValue(text.toString());
+                    if (item == null) {
+                        return new ItemRow(line, null, "Строка не содержит вещь!");
+                    }
+                    return new ItemRow(line, item, null);
+                } catch (JsonProcessingException e) {
+                    return new ItemRow(line, null, "Некорректный JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+
+        //The next line into text like BufferedReader.readLine, but at most MAX_ROW_LENGTH characters of it;
+        //false at the end of the body
+        private boolean readLine() throws IOException {
+            text.setLength(0);
+            tooLong = false;
+            int c = read();
+            if (skipLineFeed && c == '\n') {
+                c = read();
+            }
+            skipLineFeed = false;
+            if (c == -1) {
+                return false;
+            }
+            for (; c != -1 && c != '\n' && c != '\r'; c = read()) {
+                if (text.length() < MAX_ROW_LENGTH) {
+                    text.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            skipLineFeed = c == '\r';
+            return true;
+        }
+    }
+
+    //RFC 4180 with the columns named in the first row; quoted fields may hold commas, quotes and line breaks
+    private static class Csv extends ItemRowReader {
+        private final Map<String, Integer> columns = new HashMap<>();
+        //Line the next record starts on
+        private long line = 1;
+        private boolean headerRead;
+        private boolean unclosedQuote;
+        private boolean tooLong;
+
+        Csv(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        ItemRow next() throws IOException {
+            if (!headerRead) {
+                headerRead = true;
+                List<String> header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+            }
+            while (true) {
+                long start = line;
+                List<String> fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+                if (unclosedQuote) {
+                    return new ItemRow(start, null, "Не закрыты кавычки в поле CSV!");
+                }
+                if (tooLong) {
+                    return new ItemRow(start, null, String.format("Запись CSV длиннее %d символов!",
+                            MAX_ROW_LENGTH));
+                }
+                if (fields.size() > 1 || !fields.get(0).isBlank()) {
+                    return toRow(start, fields);
+                }
+            }
+        }
+
+        private ItemRow toRow(long start, List<String> fields) {
+            ItemDto item = new ItemDto(null, field(fields, "name"), field(fields, "description"), null, null);
+            String available = field(fields, "available");
+            if (available != null) {
+                if ("true".equalsIgnoreCase(available.trim())) {
+                    item.setAvailable(true);
+                } else if ("false".equalsIgnoreCase(available.trim())) {
+                    item.setAvailable(false);
+                } else {
+                    return new ItemRow(start, null,
+                            String.format("Некорректный статус доступности вещи: %s!", available));
+                }
+            }
+            String requestId = field(fields, "requestid");
+            if (requestId != null) {
+                try {
+                    item.setRequestId(Long.parseLong(requestId.trim()));
+                } catch (NumberFormatException e) {
+                    return new ItemRow(start, null, String.format("Некорректный id запроса: %s!", requestId));
+                }
+            }
+            return new ItemRow(start, item, null);
+        }
+
+        //Missing and empty fields are both null
+        @Nullable
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        //A record longer than MAX_ROW_LENGTH is read to its end with its fields dropped, tooLong tells so
+        @Nullable
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            //Characters of the record and of its current field read so far, the kept ones or not
+            int length = 0;
+            int fieldLength = 0;
+            boolean quoted = false;
+            unclosedQuote = false;
+            tooLong = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        unclosedQuote = true;
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    fieldLength++;
+                    append(field, c, ++length);
+                } else if (c == '"' && fieldLength == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    if (++length > MAX_ROW_LENGTH) {
+                        tooLong = true;
+                    } else {
+                        fields.add(field.toString());
+                    }
+                    field.setLength(0);
+                    fieldLength = 0;
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    if (tooLong) {
+                        fields.clear();
+                    }
+                    return fields;
+                } else if (c != '\r') {
+                    fieldLength++;
+                    append(field, c, ++length);
+                }
+                c = read();
+            }
+        }
+
+        private void append(StringBuilder field, int c, int length) {
+            if (length > MAX_ROW_LENGTH) {
+                tooLong = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+}
@@ -2,9 +2,13 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingNearestDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
@@ -23,8 +27,9 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -72,6 +77,7 @@ public class ItemServiceImpl implements ItemService {
         return ItemMapper.toItemDto(itemRepository.save(oldItem));
     }
 
+    @Transactional(readOnly = true)
     @Override
     public ItemResponseDto findById(long itemId, long userId) {
         checkUser(userId);
@@ -85,14 +91,29 @@ public class ItemServiceImpl implements ItemService {
     public List<ItemResponseDto> getAllItemsByOwner(long userId, Pageable pageRequest) {
         checkUser(userId);
         List<Item> itemList = itemRepository.findItemsByOwnerIdOrderById(userId, pageRequest);
-        List<ItemResponseDto> itemDtoResponseList = new ArrayList<>();
-        for (Item item : itemList) {
-            ItemResponseDto itemResponseDto = getItemResponseDto(item, userId);
-            itemDtoResponseList.add(itemResponseDto);
+        if (itemList.isEmpty()) {
+            return Collections.emptyList();
         }
-        return itemDtoResponseList;
+        List<Long> itemIds = itemList.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingItemDto> lastBookings = toBookingItemDtoMap(
+                bookingRepository.findLastBookingsByItemIds(itemIds, now));
+        Map<Long, BookingItemDto> nextBookings = toBookingItemDtoMap(
+                bookingRepository.findNextBookingsByItemIds(itemIds, now));
+        Map<Long, List<CommentDto>> comments = commentRepository.findCommentsByItemIds(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        return itemList.stream()
+                .map(item -> ItemMapper.toItemResponseDto(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<ItemDto> searchItemsByText(String text, Pageable pageRequest) {
         return itemRepository.searchItemsByText(text, pageRequest).stream()
@@ -115,26 +136,30 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private ItemResponseDto getItemResponseDto(Item item, long userId) {
-        List<Booking> bookingList;
-        LocalDateTime now = LocalDateTime.now();
-        Booking lastBooking;
-        Booking nextBooking;
-        bookingList = bookingRepository.findAllByItemsId(item.getId());
+        BookingItemDto lastBooking = null;
+        BookingItemDto nextBooking = null;
         List<CommentDto> comments = commentRepository.findCommentsByItemId(item.getId()).stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
-        if (bookingList.isEmpty()) {
-            lastBooking = null;
-            nextBooking = null;
-        } else {
-            lastBooking = bookingRepository.findLastBookingByItemId(item.getId(), userId, now)
-                    .stream().findFirst().orElse(null);
-            nextBooking = bookingRepository.findNextBookingByItemId(item.getId(), userId, now)
-                    .stream().findFirst().orElse(null);
+        if (item.getOwner().getId() == userId) {
+            for (BookingNearestDto booking : bookingRepository.findLastAndNextBookingsByItemId(item.getId(),
+                    LocalDateTime.now())) {
+                if (BookingNearestDto.LAST.equals(booking.getKind())) {
+                    lastBooking = BookingMapper.toBookingItemDto(booking);
+                } else {
+                    nextBooking = BookingMapper.toBookingItemDto(booking);
+                }
+            }
         }
         return ItemMapper.toItemResponseDto(item, lastBooking, nextBooking, comments);
     }
 
+    private Map<Long, BookingItemDto> toBookingItemDtoMap(List<BookingShortDto> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(BookingShortDto::getItemId, BookingMapper::toBookingItemDto,
+                        (first, second) -> first));
+    }
+
     private User checkUser(long userId) {
         return userRepository.findById(userId).orElseThrow(() ->
                 new EntityNotFoundException(String.format("Пользователь с id = %d не найден!", userId)));
@@ -146,6 +171,15 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private void checkItemDto(ItemDto itemDto) {
+        String error = findItemDtoError(itemDto);
+        if (error != null) {
+            throw new ValidationException(error);
+        }
+    }
+
+    //Also the rules for the rows of an item import
+    @Nullable
+    static String findItemDtoError(ItemDto itemDto) {
         String error = null;
         if (itemDto.getName() == null || itemDto.getName().isBlank()) {
             error = "У вещи должно быть название!";
@@ -156,10 +190,7 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() == null) {
             error = "Отсутствует статус доступности вещи для аренды!";
         }
-
-        if (error != null) {
-            throw new ValidationException(error);
-        }
+        return error;
     }
 
     private void checkCommentAuthor(long userId, long itemId) {
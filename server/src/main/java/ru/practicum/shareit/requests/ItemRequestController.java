@@ -33,8 +33,13 @@ public class ItemRequestController {
     }
 
     @GetMapping()
-    public List<ItemRequestOutDto> getByOwner(@RequestHeader(HEADER_USER_ID) long userId) {
-        return itemRequestService.getByOwner(userId);
+    public List<ItemRequestOutDto> getByOwner(@RequestHeader(HEADER_USER_ID) long userId,
+                                              @RequestParam(name = "from", defaultValue = "0")
+                                              Integer from,
+                                              @RequestParam(name = "size", defaultValue = "10")
+                                              Integer size) {
+        int page = from / size;
+        return itemRequestService.getByOwner(userId, PageRequest.of(page, size));
     }
 
     @GetMapping("{requestId}")
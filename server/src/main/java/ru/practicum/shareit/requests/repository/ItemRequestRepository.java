@@ -6,12 +6,17 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.requests.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(long userId);
+    @Query("select r from ItemRequest r where r.requester.id = ?1 order by r.created desc")
+    List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(long userId, Pageable pageable);
 
     @Query("select r from ItemRequest r where r.requester.id <> ?1")
     List<ItemRequest> findAllByOtherUsers(long userId, Pageable pageable);
+
+    @Query("select r.id from ItemRequest r where r.id in ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
@@ -10,7 +10,7 @@ public interface ItemRequestService {
 
     ItemRequestOutDto add(long userId, ItemRequestInDto requestInDto);
 
-    List<ItemRequestOutDto> getByOwner(long userId);
+    List<ItemRequestOutDto> getByOwner(long userId, Pageable pageRequest);
 
     List<ItemRequestOutDto> getAll(long userId, Pageable pageRequest);
 
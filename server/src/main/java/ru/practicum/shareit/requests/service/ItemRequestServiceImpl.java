@@ -5,6 +5,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.requests.dto.ItemRequestInDto;
 import ru.practicum.shareit.requests.dto.ItemRequestMapper;
@@ -15,7 +16,9 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,9 +39,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Transactional(readOnly = true)
     @Override
-    public List<ItemRequestOutDto> getByOwner(long userId) {
+    public List<ItemRequestOutDto> getByOwner(long userId, Pageable pageRequest) {
         checkUserExist(userId);
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId);
+        List<ItemRequest> requests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId, pageRequest);
         return toListRequestOutDto(requests);
     }
 
@@ -62,12 +65,18 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
 
     private List<ItemRequestOutDto> toListRequestOutDto(List<ItemRequest> requests) {
-        List<ItemRequestOutDto> requestsOut;
-        requestsOut = requests.stream()
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return requests.stream()
                 .map(request -> ItemRequestMapper.toItemRequestOutDto(request,
-                        itemRepository.findAllByRequestId(request.getId())))
+                        itemsByRequest.getOrDefault(request.getId(), Collections.emptyList())))
                 .collect(Collectors.toList());
-        return requestsOut;
     }
 
     public User checkUser(long userId) {
@@ -6,4 +6,10 @@ import ru.practicum.shareit.user.model.User;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    //Lookup by primary key goes through the second-level cache, count query does not
+    @Override
+    default boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
 }
\ No newline at end of file
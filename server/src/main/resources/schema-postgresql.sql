@@ -0,0 +1,31 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS ix_items_name_trgm ON items USING gin (upper(item_name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS ix_items_description_trgm ON items USING gin (upper(description) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_waiting ON bookings (booker_id, start_date DESC, booking_id DESC)
+    WHERE status = 'WAITING';
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_waiting ON bookings (item_id, start_date DESC, booking_id DESC)
+    WHERE status = 'WAITING';
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_active ON bookings (item_id, start_date DESC, end_date)
+    WHERE status IN ('WAITING', 'APPROVED');
+
+-- Databases created before the id sequences: identity ids are moved onto the sequences once, past the ids in use
+DO '
+DECLARE
+    id_column RECORD;
+BEGIN
+    FOR id_column IN SELECT table_name, column_name FROM information_schema.columns
+            WHERE table_schema = current_schema() AND is_identity = ''YES''
+            AND table_name IN (''users'', ''requests'', ''items'', ''bookings'', ''comments'')
+    LOOP
+        EXECUTE format(''ALTER TABLE %I ALTER COLUMN %I DROP IDENTITY'', id_column.table_name, id_column.column_name);
+        EXECUTE format(''ALTER TABLE %I ALTER COLUMN %I SET DEFAULT nextval(%L)'',
+                id_column.table_name, id_column.column_name, id_column.table_name || ''_seq'');
+        EXECUTE format(''SELECT setval(%L, (SELECT coalesce(max(%I), 0) + 1 FROM %I), false)'',
+                id_column.table_name || ''_seq'', id_column.column_name, id_column.table_name);
+    END LOOP;
+END';
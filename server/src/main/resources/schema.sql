@@ -1,21 +1,27 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-    user_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    user_id BIGINT DEFAULT nextval('users_seq') NOT NULL,
     user_name      VARCHAR(50) NOT NULL,
     email          VARCHAR(50) NOT NULL,
     CONSTRAINT pk_user       PRIMARY KEY (user_id),
     CONSTRAINT uq_user_email UNIQUE (email)
     );
 
+CREATE SEQUENCE IF NOT EXISTS requests_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS requests (
-    request_id   BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    request_id   BIGINT DEFAULT nextval('requests_seq') NOT NULL,
     description  VARCHAR(1000) NOT NULL,
     requester_id BIGINT REFERENCES users (user_id) ON DELETE CASCADE,
     created_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     CONSTRAINT pk_request PRIMARY KEY (request_id)
     );
 
+CREATE SEQUENCE IF NOT EXISTS items_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS items (
-    item_id BIGINT     GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    item_id BIGINT     DEFAULT nextval('items_seq') NOT NULL,
     item_name          VARCHAR(100) NOT NULL,
     description        VARCHAR(1000) NOT NULL,
     is_available       BOOLEAN NOT NULL,
@@ -24,8 +30,10 @@ CREATE TABLE IF NOT EXISTS items (
     CONSTRAINT pk_item PRIMARY KEY (item_id)
     );
 
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS bookings (
-    booking_id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    booking_id        BIGINT DEFAULT nextval('bookings_seq') NOT NULL,
     start_date        TIMESTAMP WITHOUT TIME ZONE,
     end_date          TIMESTAMP WITHOUT TIME ZONE,
     item_id BIGINT    REFERENCES items (item_id) ON DELETE CASCADE,
@@ -34,11 +42,29 @@ CREATE TABLE IF NOT EXISTS bookings (
     CONSTRAINT pk_booking PRIMARY KEY (booking_id)
     );
 
+CREATE SEQUENCE IF NOT EXISTS comments_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS comments (
-    comment_id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    comment_id        BIGINT DEFAULT nextval('comments_seq') NOT NULL,
     text              VARCHAR(1000) NOT NULL,
     item_id BIGINT    REFERENCES items (item_id) ON DELETE CASCADE,
     author_id         BIGINT REFERENCES users (user_id) ON DELETE CASCADE,
     created           TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_comment PRIMARY KEY (comment_id)
-    );
\ No newline at end of file
+    );
+
+CREATE INDEX IF NOT EXISTS ix_requests_requester_created ON requests (requester_id, created_date DESC);
+
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS ix_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date DESC, booking_id DESC);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item ON comments (item_id);
@@ -0,0 +1,83 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SecondLevelCacheIntegrationTest {
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void userLookupsAreServedFromCacheAndInvalidatedOnUpdate() {
+        UserDto user = userService.add(new UserDto(null, "cached", "cached@email.ru"));
+        //Rows inserted with IDENTITY ids reach the cache on the first lookup
+        userService.getById(user.getId());
+        statistics.clear();
+
+        userService.getById(user.getId());
+        assertTrue(userRepository.existsById(user.getId()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+
+        userService.update(new UserDto(user.getId(), "updated", null));
+        assertEquals("updated", userService.getById(user.getId()).getName());
+
+        userService.delete(user.getId());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "users")
+                .tag("result", "hit")
+                .functionCounter()
+                .count() > 0);
+    }
+
+    @Test
+    void itemLookupsAreInvalidatedOnUpdateAndOwnerDelete() {
+        UserDto owner = userService.add(new UserDto(null, "owner", "cached-owner@email.ru"));
+        ItemDto item = itemService.add(owner.getId(), new ItemDto(null, "item", "description", true, null));
+        itemRepository.findById(item.getId());
+        statistics.clear();
+
+        itemRepository.findById(item.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        itemService.update(owner.getId(), new ItemDto(item.getId(), "updated", null, null, null));
+        assertEquals("updated", itemRepository.findById(item.getId()).orElseThrow().getName());
+
+        userService.delete(owner.getId());
+        assertTrue(itemRepository.findById(item.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Number of SQL statements per endpoint with a cold second-level cache. Sequence calls are left out: an insert
+//makes one only when its block of ids runs out, which depends on the tests run before
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.StatementCountTest$SequenceCalls")
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class StatementCountTest {
+
+    private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+
+    private final MockMvc mvc;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+    private Item item;
+    private Booking pastBooking;
+    private Booking futureBooking;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(new User(null, "owner", "count-owner@email.ru"));
+        booker = userRepository.save(new User(null, "booker", "count-booker@email.ru"));
+        request = itemRequestRepository.save(new ItemRequest(null, "request", booker, LocalDateTime.now()));
+        item = itemRepository.save(new Item(null, "item", "description", true, owner, request));
+        pastBooking = bookingRepository.save(new Booking(null, LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1), item, booker, BookingStatus.APPROVED));
+        futureBooking = bookingRepository.save(new Booking(null, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item, booker, BookingStatus.WAITING));
+        commentRepository.save(new Comment(null, "comment", item, booker, LocalDateTime.now()));
+    }
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from users");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void bookingEndpoints() throws Exception {
+        assertStatements(1, get("/bookings/" + pastBooking.getId()), booker);
+        assertStatements(2, get("/bookings?state=ALL"), booker);
+        assertStatements(2, get("/bookings/owner?state=ALL"), owner);
+        assertStatements(2, get("/bookings?state=ALL&cursor="), booker);
+        assertStatements(2, patch("/bookings/" + futureBooking.getId() + "?approved=true"), owner);
+        assertStatements(5, post("/bookings")
+                .content("{\"itemId\": " + item.getId() + ", \"start\": \"" + LocalDateTime.now().plusDays(3)
+                        + "\", \"end\": \"" + LocalDateTime.now().plusDays(4) + "\"}"), booker);
+    }
+
+    @Test
+    void userEndpoints() throws Exception {
+        assertStatements(1, get("/users"), owner);
+        assertStatements(1, get("/users/" + owner.getId()), owner);
+        assertStatements(1, post("/users")
+                .content("{\"name\": \"user\", \"email\": \"count-user@email.ru\"}"), owner);
+        assertStatements(2, patch("/users/" + booker.getId())
+                .content("{\"name\": \"new name\"}"), booker);
+        assertStatements(3, delete("/users/" + owner.getId()), owner);
+    }
+
+    @Test
+    void itemEndpoints() throws Exception {
+        assertStatements(4, get("/items/" + item.getId()), owner);
+        assertStatements(3, get("/items/" + item.getId()), booker);
+        assertStatements(5, get("/items"), owner);
+        assertStatements(1, get("/items/search?text=item"), booker);
+        assertStatements(4, post("/items/" + item.getId() + "/comment")
+                .content("{\"text\": \"another comment\"}"), booker);
+        assertStatements(3, post("/items")
+                .content("{\"name\": \"drill\", \"description\": \"description\", \"available\": true, "
+                        + "\"requestId\": " + request.getId() + "}"), owner);
+        assertStatements(3, patch("/items/" + item.getId())
+                .content("{\"available\": false}"), owner);
+    }
+
+    @Test
+    void requestEndpoints() throws Exception {
+        assertStatements(3, get("/requests"), booker);
+        assertStatements(3, get("/requests/all"), owner);
+        assertStatements(3, get("/requests/" + request.getId()), owner);
+        assertStatements(2, post("/requests")
+                .content("{\"description\": \"another request\"}"), owner);
+    }
+
+    private void assertStatements(int expected, MockHttpServletRequestBuilder request, User user) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        SequenceCalls.COUNT.set(0);
+        mvc.perform(request
+                        .header(HEADER_USER_ID, user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        assertEquals(expected, statistics.getPrepareStatementCount() - SequenceCalls.COUNT.get());
+    }
+
+    public static class SequenceCalls implements StatementInspector {
+        private static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("nextval")) {
+                COUNT.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
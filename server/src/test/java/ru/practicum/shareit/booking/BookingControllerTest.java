@@ -9,6 +9,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -24,13 +27,17 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -107,6 +114,29 @@ class BookingControllerTest {
         verify(bookingService, times(1)).approve(anyLong(), anyLong(), anyBoolean());
     }
 
+    @Test
+    void approveAll() throws Exception {
+        when(bookingService.approveAll(eq(1L), any(), eq(true))).thenReturn(List.of(
+                new BookingApprovalResultDto(1L, BookingStatus.APPROVED, null),
+                new BookingApprovalResultDto(2L, null, "Бронирование с id = 2 не найдено!")));
+
+        mvc.perform(patch("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("approved", "true")
+                        .content(mapper.writeValueAsString(new BookingApprovalDto(List.of(1L, 2L), null, null, null)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].bookingId", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].error", is("Бронирование с id = 2 не найдено!")));
+
+        verify(bookingService, times(1)).approveAll(eq(1L), any(), eq(true));
+    }
+
     @Test
     void getById() throws Exception {
         when(bookingService.getById(anyLong(), anyLong()))
@@ -172,4 +202,48 @@ class BookingControllerTest {
         verify(bookingService, times(1)).getByOwner(anyLong(), any(), any());
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void getByUserWithCursor() throws Exception {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2022, 10, 20, 21, 22, 22), 5L);
+        when(bookingService.getByUser(anyLong(), any(), eq(cursor), anyInt()))
+                .thenReturn(List.of(bookingResponseDto));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "1")
+                        .param("cursor", cursor.encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(bookingResponseDto.getId()), Long.class))
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(bookingResponseDto).encode()));
+
+        verify(bookingService, times(1)).getByUser(1L, "ALL", cursor, 1);
+    }
+
+    @Test
+    void getByOwnerWithCursorLastPage() throws Exception {
+        when(bookingService.getByOwner(anyLong(), any(), isNull(), anyInt()))
+                .thenReturn(List.of(bookingResponseDto));
+
+        mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("cursor", "")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        verify(bookingService, times(1)).getByOwner(1L, "ALL", null, 10);
+    }
+
+    @Test
+    void getByUserWithWrongCursor() throws Exception {
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("cursor", "not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingCursorTest {
+
+    @Test
+    void encodeAndDecode() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2022, 10, 15, 13, 44, 17, 123456000), 42L);
+
+        assertEquals(cursor, BookingCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decodeBlank() {
+        assertNull(BookingCursor.decode(""));
+        assertNull(BookingCursor.decode(null));
+    }
+
+    @Test
+    void decodeWrong() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> BookingCursor.decode("bm90LWEtY3Vyc29y"));
+        assertEquals("Некорректный курсор: bm90LWEtY3Vyc29y", exception.getMessage());
+        assertThrows(ValidationException.class, () -> BookingCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.booking.repository.BookingIndexTest$SqlCaptor")
+class BookingIndexTest {
+
+    @Autowired
+    BookingRepository bookingRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        SqlCaptor.STATEMENTS.clear();
+    }
+
+    @Test
+    void bookerListingsUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        Pageable firstPage = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id"));
+        Pageable page = PageRequest.ofSize(10);
+
+        assertIndexed(() -> bookingRepository.findAllByBookerIdOrderByStartDesc(1L, firstPage));
+        assertIndexed(() -> bookingRepository
+                .findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(1L, now, now, firstPage));
+        assertIndexed(() -> bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(1L, now, firstPage));
+        assertIndexed(() -> bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(1L, now, firstPage));
+        assertIndexed(() -> bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(1L, BookingStatus.WAITING,
+                firstPage));
+        assertIndexed(() -> bookingRepository.findAllByBookerIdAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllCurrentByBookerIdAfter(1L, now, 1L, now, now, page));
+        assertIndexed(() -> bookingRepository.findAllPastByBookerIdAfter(1L, now, 1L, now, page));
+        assertIndexed(() -> bookingRepository.findAllFutureByBookerIdAfter(1L, now, 1L, now, page));
+        assertIndexed(() -> bookingRepository.findAllStatusByBookerIdAfter(1L, now, 1L, BookingStatus.REJECTED,
+                page));
+    }
+
+    @Test
+    void ownerListingsUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        Pageable firstPage = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id"));
+        Pageable page = PageRequest.ofSize(10);
+
+        assertIndexed(() -> bookingRepository.findAllByItemsOwnerId(1L, firstPage));
+        assertIndexed(() -> bookingRepository.findAllCurrentByItemsOwnerId(1L, now, now, firstPage));
+        assertIndexed(() -> bookingRepository.findAllPastByItemsOwnerId(1L, now, firstPage));
+        assertIndexed(() -> bookingRepository.findAllFutureByItemsOwnerId(1L, now, firstPage));
+        assertIndexed(() -> bookingRepository.findAllStatusByItemsOwnerId(1L, BookingStatus.WAITING, firstPage));
+        assertIndexed(() -> bookingRepository.findAllByItemsOwnerIdAfter(1L, now, 1L, page));
+        assertIndexed(() -> bookingRepository.findAllCurrentByItemsOwnerIdAfter(1L, now, 1L, now, now, page));
+        assertIndexed(() -> bookingRepository.findAllPastByItemsOwnerIdAfter(1L, now, 1L, now, page));
+        assertIndexed(() -> bookingRepository.findAllFutureByItemsOwnerIdAfter(1L, now, 1L, now, page));
+        assertIndexed(() -> bookingRepository.findAllStatusByItemsOwnerIdAfter(1L, now, 1L, BookingStatus.REJECTED,
+                page));
+    }
+
+    @Test
+    void overlapCheckUsesIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        assertIndexed(() -> bookingRepository.findIdsOfActiveOverlapping(1L, now, now.plusDays(1),
+                PageRequest.ofSize(1)));
+    }
+
+    private void assertIndexed(Runnable query) {
+        SqlCaptor.STATEMENTS.clear();
+        query.run();
+        assertEquals(1, SqlCaptor.STATEMENTS.size());
+        String sql = SqlCaptor.STATEMENTS.get(0);
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class,
+                new Object[(int) sql.chars().filter(c -> c == '?').count()]);
+        assertFalse(plan.contains("tableScan"), () -> "Запрос выполняется без индекса:\n" + plan);
+    }
+
+    public static class SqlCaptor implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
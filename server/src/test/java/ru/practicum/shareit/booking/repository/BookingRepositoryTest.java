@@ -1,23 +1,41 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingNearestDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.dto.BookingStatusDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @DataJpaTest
 class BookingRepositoryTest {
@@ -28,6 +46,10 @@ class BookingRepositoryTest {
     UserRepository userRepository;
     @Autowired
     BookingRepository bookingRepository;
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+    @Autowired
+    TestEntityManager em;
 
     User user;
     Booking booking;
@@ -44,9 +66,25 @@ class BookingRepositoryTest {
                 item, user, BookingStatus.APPROVED));
     }
 
+    @Test
+    void toStringAndEqualsDoNotLoadLazyAssociations() {
+        em.flush();
+        em.clear();
+        Booking loaded = em.find(Booking.class, booking.getId());
+
+        assertNotNull(loaded.toString());
+        assertEquals(Set.of(loaded), Set.of(em.find(Booking.class, booking.getId())));
+        assertFalse(Hibernate.isInitialized(loaded.getItem()));
+        assertFalse(Hibernate.isInitialized(loaded.getBooker()));
+
+        em.clear();
+        assertNotNull(loaded.toString());
+        assertEquals(loaded.hashCode(), loaded.hashCode());
+    }
+
     @Test
     void findAllByBookerId() {
-        List<Booking> bookings = bookingRepository
+        List<BookingResponseDto> bookings = bookingRepository
                 .findAllByBookerIdOrderByStartDesc(user.getId(), PageRequest.ofSize(10));
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
@@ -55,9 +93,26 @@ class BookingRepositoryTest {
         assertEquals(booking.getBooker().getId(), bookings.get(0).getBooker().getId());
     }
 
+    @Test
+    void findAllByBookerIdProjectsWholeResponse() {
+        User requester = userRepository.save(new User(null, "requester", "requester@email.ru"));
+        ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "request", requester,
+                LocalDateTime.of(2022, 10, 1, 10, 0, 0)));
+        Item requested = itemRepository.save(new Item(null, "item2", "description2", true, user, request));
+        Booking withRequest = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 20, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 21, 16, 22, 22),
+                requested, user, BookingStatus.WAITING));
+        List<BookingResponseDto> bookings = bookingRepository
+                .findAllByBookerIdOrderByStartDesc(user.getId(), PageRequest.ofSize(10));
+        assertEquals(List.of(BookingMapper.toBookingResponseDto(withRequest),
+                BookingMapper.toBookingResponseDto(booking)), bookings);
+        assertNull(bookings.get(1).getItem().getRequest());
+    }
+
     @Test
     void findAllByItemsOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllByItemsOwnerId(user.getId(), PageRequest.ofSize(10));
+        List<BookingResponseDto> bookings = bookingRepository.findAllByItemsOwnerId(user.getId(), PageRequest.ofSize(10));
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertEquals(booking.getId(), bookings.get(0).getId());
@@ -68,7 +123,7 @@ class BookingRepositoryTest {
     @Test
     void findAllCurrentByItemsOwnerId() {
         LocalDateTime now = LocalDateTime.of(2022, 10, 15, 20, 22, 22);
-        List<Booking> bookings = bookingRepository.findAllCurrentByItemsOwnerId(user.getId(), now, now,
+        List<BookingResponseDto> bookings = bookingRepository.findAllCurrentByItemsOwnerId(user.getId(), now, now,
                 PageRequest.ofSize(10));
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
@@ -80,7 +135,7 @@ class BookingRepositoryTest {
     @Test
     void findAllPastByItemsOwnerId() {
         LocalDateTime now = LocalDateTime.of(2022, 10, 17, 20, 22, 22);
-        List<Booking> bookings = bookingRepository.findAllPastByItemsOwnerId(user.getId(), now,
+        List<BookingResponseDto> bookings = bookingRepository.findAllPastByItemsOwnerId(user.getId(), now,
                 PageRequest.ofSize(10));
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
@@ -92,7 +147,7 @@ class BookingRepositoryTest {
     @Test
     void findAllFutureByItemsOwnerId() {
         LocalDateTime now = LocalDateTime.of(2022, 10, 14, 20, 22, 22);
-        List<Booking> bookings = bookingRepository.findAllFutureByItemsOwnerId(user.getId(), now,
+        List<BookingResponseDto> bookings = bookingRepository.findAllFutureByItemsOwnerId(user.getId(), now,
                 PageRequest.ofSize(10));
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
@@ -105,7 +160,7 @@ class BookingRepositoryTest {
     void findAllStatusByItemsOwnerId() {
         booking.setStatus(BookingStatus.WAITING);
         bookingRepository.save(booking);
-        List<Booking> bookings = bookingRepository.findAllStatusByItemsOwnerId(user.getId(), BookingStatus.WAITING,
+        List<BookingResponseDto> bookings = bookingRepository.findAllStatusByItemsOwnerId(user.getId(), BookingStatus.WAITING,
                 PageRequest.ofSize(10));
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
@@ -116,41 +171,189 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findAllByItemsId() {
-        List<Booking> bookings = bookingRepository.findAllByItemsId(item.getId());
+    void findLastAndNextBookingsByItemId() {
+        Booking next = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 20, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 21, 16, 22, 22),
+                item, user, BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 25, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 26, 16, 22, 22),
+                item, user, BookingStatus.WAITING));
+        LocalDateTime now = LocalDateTime.of(2022, 10, 17, 20, 22, 22);
+        List<BookingNearestDto> bookings = bookingRepository.findLastAndNextBookingsByItemId(item.getId(), now);
         assertNotNull(bookings);
+        assertEquals(2, bookings.size());
+        Map<String, BookingNearestDto> byKind = bookings.stream()
+                .collect(Collectors.toMap(BookingNearestDto::getKind, Function.identity()));
+        assertEquals(booking.getId(), byKind.get(BookingNearestDto.LAST).getId());
+        assertEquals(user.getId(), byKind.get(BookingNearestDto.LAST).getBookerId());
+        assertEquals(item.getId(), byKind.get(BookingNearestDto.LAST).getItemId());
+        assertEquals(next.getId(), byKind.get(BookingNearestDto.NEXT).getId());
+    }
+
+    @Test
+    void findLastAndNextBookingsByItemIdWithoutLast() {
+        LocalDateTime now = LocalDateTime.of(2022, 10, 13, 20, 22, 22);
+        List<BookingNearestDto> bookings = bookingRepository.findLastAndNextBookingsByItemId(item.getId(), now);
         assertEquals(1, bookings.size());
+        assertEquals(BookingNearestDto.NEXT, bookings.get(0).getKind());
         assertEquals(booking.getId(), bookings.get(0).getId());
-        assertEquals(booking.getItem().getId(), bookings.get(0).getItem().getId());
-        assertEquals(booking.getBooker().getId(), bookings.get(0).getBooker().getId());
     }
 
     @Test
-    void findLastBookingByItemId() {
+    void findLastBookingsByItemIds() {
+        Item item2 = itemRepository.save(new Item(null, "item2", "description2", true, user, null));
+        Booking earlier = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 10, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 11, 16, 22, 22),
+                item, user, BookingStatus.APPROVED));
         LocalDateTime now = LocalDateTime.of(2022, 10, 17, 20, 22, 22);
-        List<Booking> bookings = bookingRepository.findLastBookingByItemId(item.getId(), user.getId(), now);
+        List<BookingShortDto> bookings = bookingRepository.findLastBookingsByItemIds(
+                List.of(item.getId(), item2.getId()), now);
         assertNotNull(bookings);
         assertEquals(1, bookings.size());
         assertEquals(booking.getId(), bookings.get(0).getId());
-        assertEquals(booking.getItem().getId(), bookings.get(0).getItem().getId());
-        assertEquals(booking.getBooker().getId(), bookings.get(0).getBooker().getId());
+        assertEquals(item.getId(), bookings.get(0).getItemId());
+        assertEquals(user.getId(), bookings.get(0).getBookerId());
+        assertNotEquals(earlier.getId(), bookings.get(0).getId());
     }
 
     @Test
-    void findNextBookingByItemId() {
+    void findNextBookingsByItemIds() {
+        Item item2 = itemRepository.save(new Item(null, "item2", "description2", true, user, null));
+        Booking later = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 20, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 21, 16, 22, 22),
+                item, user, BookingStatus.APPROVED));
+        Booking next2 = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 22, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 23, 16, 22, 22),
+                item2, user, BookingStatus.WAITING));
         LocalDateTime now = LocalDateTime.of(2022, 10, 13, 20, 22, 22);
-        List<Booking> bookings = bookingRepository.findNextBookingByItemId(item.getId(), user.getId(), now);
+        List<BookingShortDto> bookings = bookingRepository.findNextBookingsByItemIds(
+                List.of(item.getId(), item2.getId()), now);
         assertNotNull(bookings);
+        assertEquals(2, bookings.size());
+        Map<Long, Long> nextByItem = bookings.stream()
+                .collect(Collectors.toMap(BookingShortDto::getItemId, BookingShortDto::getId));
+        assertEquals(booking.getId(), nextByItem.get(item.getId()));
+        assertEquals(next2.getId(), nextByItem.get(item2.getId()));
+        assertNotEquals(later.getId(), nextByItem.get(item.getId()));
+    }
+
+    @Test
+    void findAllByBookerIdAfterWalksTiesOnStart() {
+        Booking tie = bookingRepository.save(new Booking(null, booking.getStart(), booking.getEnd(),
+                item, user, BookingStatus.WAITING));
+        Booking earlier = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 10, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 11, 16, 22, 22),
+                item, user, BookingStatus.APPROVED));
+
+        List<BookingResponseDto> bookings = new ArrayList<>(bookingRepository.findAllByBookerIdOrderByStartDesc(user.getId(),
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id"))));
+        List<BookingResponseDto> page;
+        do {
+            BookingResponseDto last = bookings.get(bookings.size() - 1);
+            page = bookingRepository.findAllByBookerIdAfter(user.getId(), last.getStart(), last.getId(),
+                    PageRequest.ofSize(1));
+            bookings.addAll(page);
+        } while (!page.isEmpty());
+
+        assertEquals(List.of(tie.getId(), booking.getId(), earlier.getId()), bookings.stream()
+                .map(BookingResponseDto::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAllStatusByItemsOwnerIdAfter() {
+        Booking waiting = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 10, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 11, 16, 22, 22),
+                item, user, BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 9, 13, 44, 17),
+                LocalDateTime.of(2022, 10, 9, 16, 22, 22),
+                item, user, BookingStatus.REJECTED));
+        List<BookingResponseDto> bookings = bookingRepository.findAllStatusByItemsOwnerIdAfter(user.getId(),
+                booking.getStart(), booking.getId(), BookingStatus.WAITING, PageRequest.ofSize(10));
         assertEquals(1, bookings.size());
-        assertEquals(booking.getId(), bookings.get(0).getId());
-        assertEquals(booking.getItem().getId(), bookings.get(0).getItem().getId());
-        assertEquals(booking.getBooker().getId(), bookings.get(0).getBooker().getId());
+        assertEquals(waiting.getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    void updateStatusOfWaitingInChangesOnlyWaitingBookingsOfOwner() {
+        User other = userRepository.save(new User(null, "other", "other@email.ru"));
+        Item otherItem = itemRepository.save(new Item(null, "item2", "description2", true, other, null));
+        Booking first = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 20, 10, 0, 0),
+                LocalDateTime.of(2022, 10, 21, 10, 0, 0),
+                item, other, BookingStatus.WAITING));
+        Booking second = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 25, 10, 0, 0),
+                LocalDateTime.of(2022, 10, 26, 10, 0, 0),
+                item, other, BookingStatus.WAITING));
+        Booking notOwned = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 20, 10, 0, 0),
+                LocalDateTime.of(2022, 10, 21, 10, 0, 0),
+                otherItem, user, BookingStatus.WAITING));
+
+        assertEquals(List.of(first.getId(), second.getId()), bookingRepository.findWaitingIdsByOwner(user.getId(),
+                null, null, null, PageRequest.ofSize(10)));
+        assertEquals(List.of(second.getId()), bookingRepository.findWaitingIdsByOwner(user.getId(),
+                item.getId(), LocalDateTime.of(2022, 10, 22, 0, 0, 0), null, PageRequest.ofSize(10)));
+        assertEquals(List.of(first.getId()), bookingRepository.findWaitingIdsByOwner(user.getId(),
+                null, null, LocalDateTime.of(2022, 10, 22, 0, 0, 0), PageRequest.ofSize(10)));
+        assertEquals(List.of(second.getId()), bookingRepository.findWaitingIdsByOwner(user.getId(),
+                item.getId(), LocalDateTime.of(2022, 10, 25, 10, 0, 0), LocalDateTime.of(2022, 10, 26, 0, 0, 0),
+                PageRequest.ofSize(10)));
+        assertEquals(List.of(), bookingRepository.findWaitingIdsByOwner(user.getId(),
+                otherItem.getId(), null, null, PageRequest.ofSize(10)));
+        assertEquals(List.of(second.getId()), bookingRepository.findWaitingIdsByOwner(user.getId(),
+                null, null, null, PageRequest.of(1, 1)));
+
+        assertEquals(List.of(first.getId()), bookingRepository.findAndLockWaitingIdsIn(
+                List.of(first.getId(), booking.getId(), notOwned.getId()), user.getId()));
+        assertEquals(1, bookingRepository.updateStatusOfWaitingIn(
+                List.of(first.getId(), booking.getId(), notOwned.getId()), user.getId(), BookingStatus.REJECTED));
+        Map<Long, BookingStatus> statuses = bookingRepository.findStatusesByIdIn(
+                        List.of(first.getId(), second.getId(), booking.getId(), notOwned.getId())).stream()
+                .collect(Collectors.toMap(BookingStatusDto::getId, BookingStatusDto::getStatus));
+        assertEquals(Map.of(first.getId(), BookingStatus.REJECTED, second.getId(), BookingStatus.WAITING,
+                booking.getId(), BookingStatus.APPROVED, notOwned.getId(), BookingStatus.WAITING), statuses);
+    }
+
+    @Test
+    void findIdsOfActiveOverlappingFindsEveryOverlap() {
+        //A long booking with a short one inside it: the latest booking starting before the new one is the short one
+        Booking inner = bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 15, 14, 0, 0),
+                LocalDateTime.of(2022, 10, 15, 15, 0, 0),
+                item, user, BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null,
+                LocalDateTime.of(2022, 10, 16, 0, 0, 0),
+                LocalDateTime.of(2022, 10, 16, 12, 0, 0),
+                item, user, BookingStatus.REJECTED));
+
+        assertEquals(List.of(booking.getId()), bookingRepository.findIdsOfActiveOverlapping(item.getId(),
+                LocalDateTime.of(2022, 10, 16, 1, 0, 0), LocalDateTime.of(2022, 10, 16, 2, 0, 0),
+                PageRequest.ofSize(1)));
+        assertEquals(Set.of(booking.getId(), inner.getId()), Set.copyOf(bookingRepository.findIdsOfActiveOverlapping(
+                item.getId(), LocalDateTime.of(2022, 10, 15, 14, 30, 0), LocalDateTime.of(2022, 10, 15, 16, 0, 0),
+                PageRequest.ofSize(10))));
+        //Bookings touching the period only at its bounds do not overlap it
+        assertEquals(List.of(), bookingRepository.findIdsOfActiveOverlapping(item.getId(),
+                booking.getEnd(), booking.getEnd().plusDays(1), PageRequest.ofSize(1)));
+        assertEquals(List.of(), bookingRepository.findIdsOfActiveOverlapping(item.getId(),
+                booking.getStart().minusDays(1), booking.getStart(), PageRequest.ofSize(1)));
     }
 
     @AfterEach
     void afterEach() {
         userRepository.deleteAll();
         itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
         bookingRepository.deleteAll();
     }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BookingStateException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Parallel bookings of the same few items never end up overlapping, parallel approvals change a booking once
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int BOOKINGS_PER_THREAD = 50;
+
+    private final BookingServiceImpl bookingService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void afterEach() {
+        jdbcTemplate.update("delete from users");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void parallelBookingsDoNotOverlap() throws Exception {
+        User owner = userRepository.save(new User(null, "owner", "concurrency-owner@email.ru"));
+        List<Item> items = List.of(
+                itemRepository.save(new Item(null, "item1", "description", true, owner, null)),
+                itemRepository.save(new Item(null, "item2", "description", true, owner, null)));
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(new User(null, "booker" + i, "concurrency-booker" + i + "@email.ru")));
+        }
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (User booker : bookers) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    LocalDateTime from = base.plusHours(random.nextInt(40));
+                    BookingRequestDto booking = new BookingRequestDto(items.get(random.nextInt(items.size())).getId(),
+                            from, from.plusHours(1 + random.nextInt(4)));
+                    try {
+                        bookingService.add(booker.getId(), booking);
+                        created.incrementAndGet();
+                    } catch (ValidationException e) {
+                        conflicts.incrementAndGet();
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertTrue(errors.isEmpty(), () -> "Ошибки при бронировании: " + errors);
+        assertTrue(created.get() > 0);
+        assertTrue(conflicts.get() > 0);
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        List<Booking> bookings = bookingRepository.findAll().stream()
+                .filter(booking -> itemIds.contains(booking.getItem().getId()))
+                .collect(Collectors.toList());
+        assertEquals(created.get(), bookings.size());
+        for (Item item : items) {
+            List<Booking> itemBookings = bookings.stream()
+                    .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                    .sorted(Comparator.comparing(Booking::getStart))
+                    .collect(Collectors.toList());
+            for (int i = 1; i < itemBookings.size(); i++) {
+                Booking previous = itemBookings.get(i - 1);
+                Booking next = itemBookings.get(i);
+                assertFalse(previous.getEnd().isAfter(next.getStart()),
+                        () -> "Пересекаются бронирования " + previous.getId() + " и " + next.getId());
+            }
+        }
+    }
+
+    @Test
+    void parallelApprovalsChangeStatusOnce() throws Exception {
+        User owner = userRepository.save(new User(null, "owner", "concurrency-owner@email.ru"));
+        User booker = userRepository.save(new User(null, "booker", "concurrency-booker@email.ru"));
+        Item item = itemRepository.save(new Item(null, "item", "description", true, owner, null));
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            bookings.add(bookingRepository.save(new Booking(null, LocalDateTime.now().plusDays(i + 1),
+                    LocalDateTime.now().plusDays(i + 2), item, booker, BookingStatus.WAITING)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (Booking booking : bookings) {
+            AtomicInteger changed = new AtomicInteger();
+            AtomicInteger refused = new AtomicInteger();
+            Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                boolean approved = i % 2 == 0;
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookingService.approve(owner.getId(), booking.getId(), approved);
+                        changed.incrementAndGet();
+                    } catch (BookingStateException e) {
+                        refused.incrementAndGet();
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get(1, TimeUnit.MINUTES);
+            }
+
+            assertTrue(errors.isEmpty(), () -> "Ошибки при подтверждении: " + errors);
+            assertEquals(1, changed.get());
+            assertEquals(THREADS - 1, refused.get());
+        }
+        executor.shutdown();
+    }
+}
@@ -4,9 +4,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -21,12 +28,17 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class BookingServiceImplTest {
@@ -46,21 +58,22 @@ class BookingServiceImplTest {
     User user2;
     Item item;
     Booking booking;
+    BookingResponseDto bookingResponseDto;
 
     @BeforeEach
     void beforeEach() {
         user = new User(11L, "userName", "user@email.ru");
         user2 = new User(21L, "userName2", "user2@email.ru");
         item = new Item(11L, "itemName", "item description", true, user2, null);
-        booking = new Booking(11L, LocalDateTime.of(2022, 11, 17, 13, 22, 22),
-                LocalDateTime.of(2022, 11, 18, 13, 22, 22), item, user,
+        booking = new Booking(11L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, user,
                 BookingStatus.WAITING);
+        bookingResponseDto = BookingMapper.toBookingResponseDto(booking);
     }
 
     @Test
     void add() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findWithOwnerAndRequestById(anyLong())).thenReturn(Optional.of(item));
         when(bookingRepository.save(any())).thenReturn(booking);
 
         BookingRequestDto bookingRequestDto = new BookingRequestDto(item.getId(), booking.getStart(),
@@ -74,6 +87,24 @@ class BookingServiceImplTest {
         assertEquals(booking.getStatus(), bookingDto.getStatus());
     }
 
+    @Test
+    void addWhenItemIsAlreadyBooked() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findWithOwnerAndRequestById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.findIdsOfActiveOverlapping(eq(item.getId()), eq(booking.getStart()),
+                eq(booking.getEnd()), any())).thenReturn(List.of(booking.getId()));
+
+        BookingRequestDto bookingRequestDto = new BookingRequestDto(item.getId(), booking.getStart(),
+                booking.getEnd());
+        ValidationException exception = assertThrows(
+                ValidationException.class,
+                () -> bookingService.add(user.getId(), bookingRequestDto));
+
+        assertEquals("Вещь id=11 уже забронирована на эти даты!", exception.getMessage());
+        verify(itemRepository).findAndLockById(item.getId());
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void addWhenEndIsBeforeStart() {
 
@@ -90,9 +121,13 @@ class BookingServiceImplTest {
     @Test
     void approve() {
 
-        when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.updateStatusOfWaiting(booking.getId(), user2.getId(), BookingStatus.APPROVED))
+                .thenAnswer(invocation -> {
+                    booking.setStatus(BookingStatus.APPROVED);
+                    return 1;
+                });
+        when(bookingRepository.findResponseById(booking.getId()))
+                .thenAnswer(invocation -> Optional.of(BookingMapper.toBookingResponseDto(booking)));
 
         BookingResponseDto bookingResponseDto = bookingService.approve(user2.getId(), booking.getId(), true);
         assertNotNull(bookingResponseDto);
@@ -145,15 +180,16 @@ class BookingServiceImplTest {
     @Test
     void getByUser() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyLong(), any()))
+                .thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                any(), any(), any())).thenReturn(List.of(booking));
+                any(), any(), any())).thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(anyLong(), any(), any()))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingResponseDto));
 
         List<BookingResponseDto> bookings = bookingService.getByUser(user.getId(), "ALL",
                 Pageable.ofSize(10));
@@ -217,15 +253,15 @@ class BookingServiceImplTest {
     @Test
     void getByOwner() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(bookingRepository.findAllByItemsOwnerId(anyLong(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByItemsOwnerId(anyLong(), any())).thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllCurrentByItemsOwnerId(anyLong(),
-                any(), any(), any())).thenReturn(List.of(booking));
+                any(), any(), any())).thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllPastByItemsOwnerId(anyLong(), any(), any()))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllFutureByItemsOwnerId(anyLong(), any(), any()))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingResponseDto));
         when(bookingRepository.findAllStatusByItemsOwnerId(anyLong(), any(), any()))
-                .thenReturn(List.of(booking));
+                .thenReturn(List.of(bookingResponseDto));
 
         List<BookingResponseDto> bookings = bookingService.getByOwner(user2.getId(), "ALL",
                 Pageable.ofSize(10));
@@ -286,6 +322,45 @@ class BookingServiceImplTest {
         assertEquals("Unknown state: UNSUPPORTED_STATUS", exception.getMessage());
     }
 
+    @Test
+    void getByUserWithCursor() {
+        BookingCursor cursor = new BookingCursor(booking.getStart(), booking.getId());
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByBookerIdAfter(anyLong(), any(), anyLong(), any()))
+                .thenReturn(List.of(bookingResponseDto));
+
+        List<BookingResponseDto> bookings = bookingService.getByUser(user.getId(), "ALL", cursor, 10);
+        assertEquals(1, bookings.size());
+        assertEquals(booking.getId(), bookings.get(0).getId());
+        verify(bookingRepository).findAllByBookerIdAfter(user.getId(), booking.getStart(), booking.getId(),
+                PageRequest.ofSize(10));
+
+        bookingService.getByUser(user.getId(), "REJECTED", cursor, 10);
+        verify(bookingRepository).findAllStatusByBookerIdAfter(user.getId(), booking.getStart(), booking.getId(),
+                BookingStatus.REJECTED, PageRequest.ofSize(10));
+    }
+
+    @Test
+    void getByOwnerWithoutCursor() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByItemsOwnerId(anyLong(), any())).thenReturn(List.of(bookingResponseDto));
+
+        List<BookingResponseDto> bookings = bookingService.getByOwner(user2.getId(), "ALL", null, 10);
+        assertEquals(1, bookings.size());
+        verify(bookingRepository).findAllByItemsOwnerId(eq(user2.getId()),
+                eq(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id"))));
+    }
+
+    @Test
+    void getByOwnerWithCursorUnknownState() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        BookingStateException exception = assertThrows(BookingStateException.class, () ->
+                bookingService.getByOwner(user2.getId(), "UNSUPPORTED_STATUS",
+                        new BookingCursor(booking.getStart(), booking.getId()), 10));
+        assertEquals("Unknown state: UNSUPPORTED_STATUS", exception.getMessage());
+    }
+
     @Test
     void approveNotWaiting() {
 
@@ -318,13 +393,70 @@ class BookingServiceImplTest {
                 "Пользователь id=11 не является владельцем вещи id=11!", exception.getMessage());
     }
 
+    @Test
+    void approveAllReportsEachBooking() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findStatusesByIdIn(any())).thenReturn(List.of(
+                new BookingStatusDto(1L, BookingStatus.WAITING, item.getId(), user2.getId()),
+                new BookingStatusDto(2L, BookingStatus.APPROVED, item.getId(), user2.getId()),
+                new BookingStatusDto(3L, BookingStatus.WAITING, 12L, user.getId())));
+        when(bookingRepository.findAndLockWaitingIdsIn(List.of(1L), user2.getId())).thenReturn(List.of(1L));
+        when(bookingRepository.updateStatusOfWaitingIn(Set.of(1L), user2.getId(), BookingStatus.REJECTED))
+                .thenReturn(1);
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(user2.getId(),
+                new BookingApprovalDto(List.of(1L, 2L, 3L, 4L, 1L), null, null, null), false);
+
+        assertEquals(List.of(
+                new BookingApprovalResultDto(1L, BookingStatus.REJECTED, null),
+                new BookingApprovalResultDto(2L, null, "Бронирование id=2 уже находится в статусе APPROVED!"),
+                new BookingApprovalResultDto(3L, null, "Ошибка смены статуса запроса на бронирование! " +
+                        "Пользователь id=21 не является владельцем вещи id=12!"),
+                new BookingApprovalResultDto(4L, null, "Бронирование с id = 4 не найдено!")), results);
+    }
+
+    @Test
+    void approveAllListWithFilter() {
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> bookingService.approveAll(
+                user2.getId(), new BookingApprovalDto(List.of(1L), item.getId(), null, null), true));
+
+        assertEquals("Список бронирований нельзя указывать вместе с фильтром!", exception.getMessage());
+        verify(bookingRepository, never()).updateStatusOfWaitingIn(any(), anyLong(), any());
+    }
+
+    @Test
+    void approveAllByFilterReportsBookingsChangedMeanwhile() {
+        LocalDateTime from = LocalDateTime.now();
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.findWaitingIdsByOwner(eq(user2.getId()), eq(item.getId()), eq(from), isNull(),
+                any())).thenReturn(List.of(1L, 2L, 3L));
+        //2 is approved by a concurrent call, 3 is canceled by its booker: neither is locked nor changed by this one
+        when(bookingRepository.findAndLockWaitingIdsIn(List.of(1L, 2L, 3L), user2.getId())).thenReturn(List.of(1L));
+        when(bookingRepository.updateStatusOfWaitingIn(Set.of(1L), user2.getId(), BookingStatus.APPROVED))
+                .thenReturn(1);
+        when(bookingRepository.findStatusesByIdIn(List.of(2L, 3L))).thenReturn(List.of(
+                new BookingStatusDto(2L, BookingStatus.APPROVED, item.getId(), user2.getId()),
+                new BookingStatusDto(3L, BookingStatus.CANCELED, item.getId(), user2.getId())));
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(user2.getId(),
+                new BookingApprovalDto(null, item.getId(), from, null), true);
+
+        assertEquals(List.of(
+                new BookingApprovalResultDto(1L, BookingStatus.APPROVED, null),
+                new BookingApprovalResultDto(2L, null, "Бронирование id=2 уже находится в статусе APPROVED!"),
+                new BookingApprovalResultDto(3L, null, "Бронирование id=3 уже находится в статусе CANCELED!")),
+                results);
+    }
+
     @Test
     void addBookerIsOwnerByItem() {
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
         when(userRepository.save(any())).thenReturn(user2);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findWithOwnerAndRequestById(anyLong())).thenReturn(Optional.of(item));
         when(itemRepository.save(any())).thenReturn(item);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any())).thenReturn(booking);
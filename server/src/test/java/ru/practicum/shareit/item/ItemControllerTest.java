@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,27 +11,39 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileCopyUtils;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportFormat;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +53,8 @@ class ItemControllerTest {
 
     @MockBean
     ItemService itemService;
+    @MockBean
+    ItemImportService itemImportService;
     @Autowired
     private MockMvc mvc;
     @Autowired
@@ -187,4 +203,58 @@ class ItemControllerTest {
 
         verify(itemService, times(1)).addComment(any(), anyLong(), anyLong());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addCommentInSmile() throws Exception {
+        MediaType smile = new MediaType("application", "x-jackson-smile");
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        CommentDto commentDto = new CommentDto(1L, "text comment", "author1",
+                LocalDateTime.now());
+        when(itemService.addComment(any(), anyLong(), anyLong()))
+                .thenReturn(commentDto);
+
+        byte[] response = mvc.perform(post("/items/1/comment")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(smileMapper.writeValueAsBytes(Map.of("text", commentDto.getText())))
+                        .contentType(smile)
+                        .accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        JsonNode comment = smileMapper.readTree(response);
+        assertEquals(commentDto.getId(), comment.get("id").asLong());
+        assertEquals(commentDto.getText(), comment.get("text").asText());
+        assertEquals(commentDto.getCreated().format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss")),
+                comment.get("created").asText());
+        verify(itemService, times(1)).addComment(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void importItems() throws Exception {
+        String csv = "name,description,available\nДрель,Ударная,true\n";
+        AtomicReference<String> received = new AtomicReference<>();
+        when(itemImportService.importItems(anyLong(), eq(ItemImportFormat.CSV), any()))
+                .thenAnswer(invocation -> {
+                    received.set(FileCopyUtils.copyToString(invocation.getArgument(2, Reader.class)));
+                    return new ItemImportResultDto(1L, 1L, List.of(new ItemImportErrorDto(3L, "error")));
+                });
+
+        mvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(csv.getBytes(Charset.forName("windows-1251")))
+                        .contentType("text/csv;charset=windows-1251")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.errors", hasSize(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)))
+                .andExpect(jsonPath("$.errors[0].error", is("error")));
+
+        assertEquals(csv, received.get());
+        verify(itemImportService, times(1)).importItems(eq(1L), eq(ItemImportFormat.CSV), any());
+    }
+}
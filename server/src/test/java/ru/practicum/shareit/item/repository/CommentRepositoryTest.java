@@ -48,6 +48,19 @@ class CommentRepositoryTest {
         assertEquals(comment.getAuthor().getName(), comments.get(0).getAuthor().getName());
     }
 
+    @Test
+    void findCommentsByItemIds() {
+        Item item2 = itemRepository.save(new Item(null, "item2", "description2", true, user1, null));
+        Comment comment2 = commentRepository.save(new Comment(null, "text comment2", item2, user1,
+                LocalDateTime.now()));
+        List<Comment> comments = commentRepository.findCommentsByItemIds(List.of(item1.getId(), item2.getId()));
+        assertNotNull(comments);
+        assertEquals(2, comments.size());
+        assertEquals(comment.getId(), comments.get(0).getId());
+        assertEquals(comment2.getId(), comments.get(1).getId());
+        assertEquals(user1.getName(), comments.get(1).getAuthor().getName());
+    }
+
     @AfterEach
     void afterEach() {
         userRepository.deleteAll();
@@ -14,6 +14,8 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -83,6 +85,25 @@ class ItemRepositoryTest {
         assertEquals(item1.getAvailable(), items.get(0).getAvailable());
     }
 
+    @Test
+    void findAllByRequestIdIn() {
+        ItemRequest itemRequest1 = itemRequestRepository.save(new ItemRequest(null, "item request 1", user2,
+                LocalDateTime.now()));
+        ItemRequest itemRequest2 = itemRequestRepository.save(new ItemRequest(null, "item request 2", user1,
+                LocalDateTime.now()));
+        ItemRequest itemRequest3 = itemRequestRepository.save(new ItemRequest(null, "item request 3", user1,
+                LocalDateTime.now()));
+        item1.setRequest(itemRequest1);
+        item2.setRequest(itemRequest2);
+        itemRepository.save(new Item(null, "item3", "description3", true, user2, itemRequest3));
+        List<Item> items = itemRepository.findAllByRequestIdIn(List.of(itemRequest1.getId(), itemRequest2.getId()));
+        assertNotNull(items);
+        assertEquals(2, items.size());
+        assertEquals(Set.of(item1.getId(), item2.getId()), items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toSet()));
+    }
+
     @AfterEach
     void afterEach() {
         userRepository.deleteAll();
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportFormat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ItemRowReaderTest {
+
+    private final ObjectReader itemReader = new ObjectMapper().readerFor(ItemDto.class);
+
+    @Test
+    void readNdjson() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(ItemImportFormat.NDJSON,
+                "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true,\"requestId\":5}\n" +
+                        "\n" +
+                        "{\"name\":\"Пила\",\n" +
+                        "null\n");
+
+        assertEquals(3, rows.size());
+        assertEquals(new ItemDto(null, "Дрель", "Ударная", true, 5L), rows.get(0).getItem());
+        assertEquals(1, rows.get(0).getLine());
+        assertEquals(3, rows.get(1).getLine());
+        assertNotNull(rows.get(1).getError());
+        assertEquals(4, rows.get(2).getLine());
+        assertEquals("Строка не содержит вещь!", rows.get(2).getError());
+    }
+
+    @Test
+    void readCsv() throws IOException {
+        List<ItemRowReader.ItemRow> rows = readAll(ItemImportFormat.CSV,
+                "Name,available,description,requestId\r\n" +
+                        "Дрель,true,\"Ударная, с \"\"насадками\"\"\",\r\n" +
+                        "Пила,FALSE,\"Две\n" +
+                        "строки\",7\n" +
+                        "\n" +
+                        "Молоток,может быть,Тяжелый,\n" +
+                        "Лопата,true,Штыковая,первый\n" +
+                        ",,,\n" +
+                        "Топор,true,\"Без конца");
+
+        assertEquals(6, rows.size());
+        assertEquals(new ItemDto(null, "Дрель", "Ударная, с \"насадками\"", true, null), rows.get(0).getItem());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals(new ItemDto(null, "Пила", "Две\nстроки", false, 7L), rows.get(1).getItem());
+        assertEquals(3, rows.get(1).getLine());
+        assertEquals("Некорректный статус доступности вещи: может быть!", rows.get(2).getError());
+        assertEquals(6, rows.get(2).getLine());
+        assertEquals("Некорректный id запроса: первый!", rows.get(3).getError());
+        assertEquals(new ItemDto(null, null, null, null, null), rows.get(4).getItem());
+        assertNull(rows.get(4).getError());
+        assertEquals("Не закрыты кавычки в поле CSV!", rows.get(5).getError());
+        assertEquals(9, rows.get(5).getLine());
+    }
+
+    @Test
+    void rowsLongerThanLimitAreRejected() throws IOException {
+        String longName = "Д".repeat(ItemRowReader.MAX_ROW_LENGTH);
+        List<ItemRowReader.ItemRow> rows = readAll(ItemImportFormat.NDJSON,
+                "{\"name\":\"" + longName + "\",\"description\":\"Ударная\",\"available\":true}\r\n" +
+                        "{\"name\":\"Пила\",\"description\":\"Ручная\",\"available\":true}\r" +
+                        "{\"name\":\"Молоток\",\"description\":\"Тяжелый\",\"available\":true}");
+
+        assertEquals(3, rows.size());
+        assertEquals(1, rows.get(0).getLine());
+        assertEquals("Строка длиннее 16384 символов!", rows.get(0).getError());
+        assertEquals(new ItemDto(null, "Пила", "Ручная", true, null), rows.get(1).getItem());
+        assertEquals(2, rows.get(1).getLine());
+        assertEquals(3, rows.get(2).getLine());
+
+        rows = readAll(ItemImportFormat.CSV,
+                "name,description,available\n" +
+                        "Дрель,\"" + longName + "\n" + longName + "\",true\n" +
+                        ",".repeat(ItemRowReader.MAX_ROW_LENGTH + 1) + "\n" +
+                        "Пила,Ручная,true\n");
+
+        assertEquals(3, rows.size());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals("Запись CSV длиннее 16384 символов!", rows.get(0).getError());
+        assertEquals(4, rows.get(1).getLine());
+        assertEquals("Запись CSV длиннее 16384 символов!", rows.get(1).getError());
+        assertEquals(new ItemDto(null, "Пила", "Ручная", true, null), rows.get(2).getItem());
+        assertEquals(5, rows.get(2).getLine());
+    }
+
+    @Test
+    void readEmptyBody() throws IOException {
+        assertEquals(0, readAll(ItemImportFormat.CSV, "").size());
+        assertEquals(0, readAll(ItemImportFormat.CSV, "name,description,available\n").size());
+        assertEquals(0, readAll(ItemImportFormat.NDJSON, "").size());
+    }
+
+    private List<ItemRowReader.ItemRow> readAll(ItemImportFormat format, String body) throws IOException {
+        ItemRowReader reader = ItemRowReader.of(format, new StringReader(body), itemReader);
+        List<ItemRowReader.ItemRow> rows = new ArrayList<>();
+        for (ItemRowReader.ItemRow row = reader.next(); row != null; row = reader.next()) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
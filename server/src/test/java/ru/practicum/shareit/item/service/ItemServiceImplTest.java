@@ -4,6 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingNearestDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -30,10 +34,15 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ItemServiceImplTest {
@@ -117,7 +126,7 @@ class ItemServiceImplTest {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(userRepository.save(any())).thenReturn(user);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByItemsId(anyLong())).thenReturn(Collections.emptyList());
+        when(bookingRepository.findLastAndNextBookingsByItemId(anyLong(), any())).thenReturn(Collections.emptyList());
         when(commentRepository.findCommentsByItemId(anyLong())).thenReturn(Collections.emptyList());
 
         ItemResponseDto itemDto = ItemMapper.toItemResponseDto(item,
@@ -141,8 +150,9 @@ class ItemServiceImplTest {
         when(userRepository.save(any())).thenReturn(user);
         when(itemRepository.findItemsByOwnerIdOrderById(1L, Pageable.ofSize(15)))
                 .thenReturn(Collections.singletonList(item));
-        when(bookingRepository.findAllByItemsId(anyLong())).thenReturn(Collections.emptyList());
-        when(commentRepository.findCommentsByItemId(anyLong())).thenReturn(Collections.emptyList());
+        when(bookingRepository.findLastBookingsByItemIds(any(), any())).thenReturn(Collections.emptyList());
+        when(bookingRepository.findNextBookingsByItemIds(any(), any())).thenReturn(Collections.emptyList());
+        when(commentRepository.findCommentsByItemIds(any())).thenReturn(Collections.emptyList());
         List<ItemResponseDto> itemsList1 = itemService.getAllItemsByOwner(1L, Pageable.ofSize(15));
         assertNotNull(itemsList1);
         assertEquals(1L, itemsList1.size());
@@ -153,6 +163,41 @@ class ItemServiceImplTest {
 
     }
 
+    @Test
+    void getAllItemsByOwnerWithBookingsAndComments() {
+        Item item2 = new Item(2L, "Item2", "item2 description", true, user, null);
+        User booker = new User(2L, "Booker", "booker@email.ru");
+        Comment comment = new Comment(1L, "text comment", item2, booker, LocalDateTime.now());
+        BookingShortDto lastBooking = mock(BookingShortDto.class);
+        when(lastBooking.getId()).thenReturn(5L);
+        when(lastBooking.getItemId()).thenReturn(item.getId());
+        when(lastBooking.getBookerId()).thenReturn(booker.getId());
+        BookingShortDto nextBooking = mock(BookingShortDto.class);
+        when(nextBooking.getId()).thenReturn(6L);
+        when(nextBooking.getItemId()).thenReturn(item2.getId());
+        when(nextBooking.getBookerId()).thenReturn(booker.getId());
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findItemsByOwnerIdOrderById(1L, Pageable.ofSize(15)))
+                .thenReturn(List.of(item, item2));
+        when(bookingRepository.findLastBookingsByItemIds(any(), any())).thenReturn(List.of(lastBooking));
+        when(bookingRepository.findNextBookingsByItemIds(any(), any())).thenReturn(List.of(nextBooking));
+        when(commentRepository.findCommentsByItemIds(any())).thenReturn(List.of(comment));
+
+        List<ItemResponseDto> items = itemService.getAllItemsByOwner(1L, Pageable.ofSize(15));
+        assertEquals(2, items.size());
+        assertEquals(new BookingItemDto(5L, booker.getId()), items.get(0).getLastBooking());
+        assertNull(items.get(0).getNextBooking());
+        assertEquals(0, items.get(0).getComments().size());
+        assertNull(items.get(1).getLastBooking());
+        assertEquals(new BookingItemDto(6L, booker.getId()), items.get(1).getNextBooking());
+        assertEquals(1, items.get(1).getComments().size());
+        assertEquals(booker.getName(), items.get(1).getComments().get(0).getAuthorName());
+        verify(bookingRepository, times(1)).findLastBookingsByItemIds(eq(List.of(item.getId(), item2.getId())), any());
+        verify(commentRepository, times(1)).findCommentsByItemIds(List.of(item.getId(), item2.getId()));
+        verify(commentRepository, never()).findCommentsByItemId(anyLong());
+    }
+
     @Test
     void searchItemsByText() {
         when(itemRepository.searchItemsByText("text", Pageable.ofSize(20)))
@@ -257,27 +302,19 @@ class ItemServiceImplTest {
 
     @Test
     void getItemResponseDto() {
-        Booking lastBooking = new Booking(1L, LocalDateTime.of(2022, 10, 14, 13, 22, 22),
-                LocalDateTime.of(2022, 9, 15, 13, 22, 22),
-                item, user, BookingStatus.APPROVED);
-
-        Booking nextBooking = new Booking(1L, LocalDateTime.of(2022, 10, 16, 13, 22, 22),
-                LocalDateTime.of(2022, 9, 17, 13, 22, 22),
-                item, user, BookingStatus.APPROVED);
+        BookingNearestDto lastBooking = mockNearestBooking(1L, BookingNearestDto.LAST);
+        BookingNearestDto nextBooking = mockNearestBooking(2L, BookingNearestDto.NEXT);
 
         when(userRepository.existsById(anyLong())).thenReturn(true);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(userRepository.save(any())).thenReturn(user);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByItemsId(anyLong())).thenReturn(List.of(lastBooking));
         when(commentRepository.findCommentsByItemId(anyLong())).thenReturn(Collections.emptyList());
-        when(bookingRepository.findLastBookingByItemId(anyLong(), anyLong(), any()))
-                .thenReturn(List.of(lastBooking));
-        when(bookingRepository.findNextBookingByItemId(anyLong(), anyLong(), any()))
-                .thenReturn(List.of(nextBooking));
+        when(bookingRepository.findLastAndNextBookingsByItemId(anyLong(), any()))
+                .thenReturn(List.of(lastBooking, nextBooking));
         ItemResponseDto itemDto = ItemMapper.toItemResponseDto(item,
-                lastBooking,
-                nextBooking,
+                BookingMapper.toBookingItemDto(lastBooking),
+                BookingMapper.toBookingItemDto(nextBooking),
                 Collections.emptyList());
         ItemResponseDto itemDto1 = itemService.findById(item.getId(), user.getId());
         assertNotNull(itemDto1);
@@ -290,6 +327,19 @@ class ItemServiceImplTest {
         assertEquals(itemDto.getNextBooking(), itemDto1.getNextBooking());
     }
 
+    @Test
+    void getItemResponseDtoForNotOwner() {
+        User user2 = new User(2L, "User2", "user2@email.ru");
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user2));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(commentRepository.findCommentsByItemId(anyLong())).thenReturn(Collections.emptyList());
+
+        ItemResponseDto itemDto = itemService.findById(item.getId(), user2.getId());
+        assertNull(itemDto.getLastBooking());
+        assertNull(itemDto.getNextBooking());
+        verify(bookingRepository, never()).findLastAndNextBookingsByItemId(anyLong(), any());
+    }
+
     @Test
     void addItemWithWrongItemName() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
@@ -335,6 +385,15 @@ class ItemServiceImplTest {
         assertEquals("Отсутствует статус доступности вещи для аренды!", exception.getMessage());
     }
 
+    private BookingNearestDto mockNearestBooking(long id, String kind) {
+        BookingNearestDto booking = mock(BookingNearestDto.class);
+        when(booking.getId()).thenReturn(id);
+        when(booking.getItemId()).thenReturn(item.getId());
+        when(booking.getBookerId()).thenReturn(user.getId());
+        when(booking.getKind()).thenReturn(kind);
+        return booking;
+    }
+
     @Test
     void addCommentForBookingIsActive() {
         Comment comment = new Comment(1L, "text comment", item, user,
@@ -7,19 +7,26 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportFormat;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 
+import java.io.StringReader;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
 
 @Transactional
@@ -31,6 +38,7 @@ class ItemServiceIntegrationTest {
 
     private final EntityManager em;
     private final ItemServiceImpl itemService;
+    private final ItemImportServiceImpl itemImportService;
 
     @Test
     void add() {
@@ -111,4 +119,68 @@ class ItemServiceIntegrationTest {
         assertThat(itemService.getAllItemsByOwner(owner.getId(), Pageable.ofSize(10)),
                 equalTo(List.of(itemResponseDto1, itemResponseDto2)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void importItems() {
+        User owner = new User(null, "UserImport", "import@email.ru");
+        em.persist(owner);
+        ItemRequest request = new ItemRequest(null, "Нужна дрель", owner, LocalDateTime.now());
+        em.persist(request);
+        em.flush();
+
+        int chunk = ItemImportServiceImpl.CHUNK_SIZE;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < chunk + 10; i++) {
+            body.append("{\"name\":\"Import").append(i).append("\",\"description\":\"d\",\"available\":true}\n");
+        }
+        body.append("{\"name\":\" \",\"description\":\"d\",\"available\":true}\n");
+        body.append("{\"name\":\"Requested\",\"description\":\"d\",\"available\":false,\"requestId\":")
+                .append(request.getId()).append("}\n");
+        body.append("{\"name\":\"Lost\",\"description\":\"d\",\"available\":true,\"requestId\":-1}\n");
+
+        ItemImportResultDto result = itemImportService.importItems(owner.getId(), ItemImportFormat.NDJSON,
+                new StringReader(body.toString()));
+
+        assertThat(result.getImported(), equalTo(chunk + 11L));
+        assertThat(result.getRejected(), equalTo(2L));
+        assertThat(result.getErrors(), equalTo(List.of(
+                new ItemImportErrorDto(chunk + 11L, "У вещи должно быть название!"),
+                new ItemImportErrorDto(chunk + 13L, "Запрос с id = -1 не найден!"))));
+        List<Item> items = em.createQuery("Select i from Item i where i.owner.id = :owner", Item.class)
+                .setParameter("owner", owner.getId())
+                .getResultList();
+        assertThat(items, hasSize(chunk + 11));
+        Item requested = items.stream()
+                .filter(item -> item.getName().equals("Requested"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(requested.getAvailable(), equalTo(false));
+        assertThat(requested.getRequest().getId(), equalTo(request.getId()));
+    }
+
+    @Test
+    void importItemsReturnsErrorsOfFirstRejectedRowsOnly() {
+        User owner = new User(null, "UserImportErrors", "import-errors@email.ru");
+        em.persist(owner);
+        em.flush();
+
+        int rejected = ItemImportServiceImpl.MAX_ERRORS + 50;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rejected; i++) {
+            body.append("{\"name\":\"Import").append(i).append("\",\"description\":\"d\",\"available\":true,")
+                    .append("\"requestId\":-1}\n");
+            body.append("{\"name\":\"\",\"description\":\"d\",\"available\":true}\n");
+        }
+
+        ItemImportResultDto result = itemImportService.importItems(owner.getId(), ItemImportFormat.NDJSON,
+                new StringReader(body.toString()));
+
+        assertThat(result.getImported(), equalTo(0L));
+        assertThat(result.getRejected(), equalTo(2L * rejected));
+        assertThat(result.getErrors(), hasSize(ItemImportServiceImpl.MAX_ERRORS));
+        //Rows of the chunk are rejected after the rows of later lines, the errors are still of the first lines
+        for (int i = 0; i < ItemImportServiceImpl.MAX_ERRORS; i++) {
+            assertThat(result.getErrors().get(i).getLine(), equalTo(i + 1L));
+        }
+    }
+}
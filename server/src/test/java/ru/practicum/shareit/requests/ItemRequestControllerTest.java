@@ -80,7 +80,7 @@ class ItemRequestControllerTest {
 
     @Test
     void getAllByOwner() throws Exception {
-        when(itemRequestService.getByOwner(anyLong()))
+        when(itemRequestService.getByOwner(anyLong(), any()))
                 .thenReturn(List.of(itemRequestOutDto));
 
         mvc.perform(get("/requests")
@@ -37,7 +37,8 @@ class ItemRequestRepositoryTest {
 
     @Test
     void findAllByRequesterIdOrderByCreatedDesc() {
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(user1.getId());
+        List<ItemRequest> requests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(user1.getId(),
+                Pageable.ofSize(10));
         assertNotNull(requests);
         assertEquals(1, requests.size());
         assertEquals(request.getId(), requests.get(0).getId());
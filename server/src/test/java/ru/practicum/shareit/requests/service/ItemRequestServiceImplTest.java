@@ -24,6 +24,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ItemRequestServiceImplTest {
@@ -90,9 +93,10 @@ class ItemRequestServiceImplTest {
     @Test
     void getByOwner() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(anyLong())).thenReturn(List.of(itemRequest));
+        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(anyLong(), any()))
+                .thenReturn(List.of(itemRequest));
 
-        List<ItemRequestOutDto> itemRequestOutDto = itemRequestService.getByOwner(user.getId());
+        List<ItemRequestOutDto> itemRequestOutDto = itemRequestService.getByOwner(user.getId(), Pageable.ofSize(10));
         assertNotNull(itemRequestOutDto);
         assertEquals(1, itemRequestOutDto.size());
         assertEquals(ItemRequestOutDto.class, itemRequestOutDto.get(0).getClass());
@@ -119,6 +123,28 @@ class ItemRequestServiceImplTest {
 
     }
 
+    @Test
+    void getAllGroupsItemsByRequest() {
+        User user2 = new User(2L, "User2", "user2@email.ru");
+        ItemRequest itemRequest2 = new ItemRequest(2L, "request description2", user2,
+                LocalDateTime.of(2022, 10, 14, 13, 44, 22));
+        ItemRequest itemRequest3 = new ItemRequest(3L, "request description3", user2,
+                LocalDateTime.of(2022, 10, 13, 13, 44, 22));
+        Item item2 = new Item(2L, "Item2", "item2 description", true, user, itemRequest2);
+        Item item3 = new Item(3L, "Item3", "item3 description", true, user, itemRequest2);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findAllByOtherUsers(anyLong(), any()))
+                .thenReturn(List.of(itemRequest2, itemRequest3));
+        when(itemRepository.findAllByRequestIdIn(any())).thenReturn(List.of(item2, item3));
+
+        List<ItemRequestOutDto> itemRequestOutDtos = itemRequestService.getAll(user.getId(), Pageable.ofSize(10));
+        assertEquals(2, itemRequestOutDtos.size());
+        assertEquals(2, itemRequestOutDtos.get(0).getItems().size());
+        assertEquals(0, itemRequestOutDtos.get(1).getItems().size());
+        verify(itemRepository, times(1)).findAllByRequestIdIn(List.of(itemRequest2.getId(), itemRequest3.getId()));
+        verify(itemRepository, never()).findAllByRequestId(anyLong());
+    }
+
     @Test
     void getById() {
         when(userRepository.existsById(anyLong())).thenReturn(true);
@@ -139,7 +165,7 @@ class ItemRequestServiceImplTest {
 
         EntityNotFoundException exception = assertThrows(
                 EntityNotFoundException.class,
-                () -> itemRequestService.getByOwner(10));
+                () -> itemRequestService.getByOwner(10, Pageable.ofSize(10)));
 
         assertEquals("Пользователь с id = 10 не найден!", exception.getMessage());
     }
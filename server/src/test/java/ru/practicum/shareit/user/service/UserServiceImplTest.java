@@ -2,7 +2,9 @@ package ru.practicum.shareit.user.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -17,6 +19,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -30,12 +33,15 @@ class UserServiceImplTest {
 
     @MockBean
     UserRepository userRepository;
+    @MockBean
+    ItemRepository itemRepository;
     UserService userService;
 
     @BeforeEach
     void beforeEach() {
         userRepository = mock(UserRepository.class);
-        userService = new UserServiceImpl(userRepository);
+        itemRepository = mock(ItemRepository.class);
+        userService = new UserServiceImpl(userRepository, itemRepository);
     }
 
     @Test
@@ -100,4 +106,13 @@ class UserServiceImplTest {
 
     }
 
+    @Test
+    void deleteRemovesOwnedItemsFirst() {
+        userService.delete(user.getId());
+
+        InOrder inOrder = inOrder(itemRepository, userRepository);
+        inOrder.verify(itemRepository).deleteAllByOwnerId(user.getId());
+        inOrder.verify(userRepository).deleteById(user.getId());
+    }
+
 }
\ No newline at end of file
@@ -11,9 +11,12 @@ import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
 
 @Transactional
@@ -55,4 +58,22 @@ class UserServiceIntegrationTest {
         User updateUser = new User(userOut.getId(), "user updateName", "user@email.ru");
         assertThat(userService.update(UserMapper.toUserDto(updateUser)), equalTo(UserMapper.toUserDto(updateUser)));
     }
-}
\ No newline at end of file
+
+    //Native inserts draw ids from the same sequence as the blocks Hibernate hands out
+    @Test
+    void nativeAndGeneratedIdsDoNotCollide() {
+        userService.add(new UserDto(null, "first", "first@email.ru"));
+        em.createNativeQuery("insert into users (user_name, email) values (?, ?)")
+                .setParameter(1, "native")
+                .setParameter(2, "native@email.ru")
+                .executeUpdate();
+        userService.add(new UserDto(null, "second", "second@email.ru"));
+        em.flush();
+
+        List<Long> ids = em.createQuery("select u.id from User u where u.email in :emails", Long.class)
+                .setParameter("emails", List.of("first@email.ru", "native@email.ru", "second@email.ru"))
+                .getResultList();
+        assertThat(ids, hasSize(3));
+        assertThat(Set.copyOf(ids), hasSize(3));
+    }
+}